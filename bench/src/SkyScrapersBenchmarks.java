@@ -0,0 +1,234 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Created on 2026-10-18
+ *
+ * Operations measured by the JMH benchmarks in package skyscrapers.bench.
+ *
+ * JMH does not accept benchmarks in the default package, and classes of the default package
+ * cannot be imported from other packages. So benchmarks look these factories up by name once per trial
+ * and measure the operations they return, see skyscrapers.bench.Operations.
+ * Each operation returns its result, so the JIT cannot drop the work.
+ */
+public class SkyScrapersBenchmarks {
+
+    //puzzles in each corpus
+    private static final int CORPUS_SIZE = 200;
+
+    /**
+     * Solves the next puzzle of a corpus with SkyScrapers.solvePuzzle()
+     * @param size - board size N
+     * @param corpus - easy, hard or unsolvable, see corpus()
+     * @param engine - name of a {@link SkyScrapers.Engine}
+     */
+    public static Supplier<Object> solvePuzzle(int size, String corpus, String engine) {
+        SkyScrapers.Engine solveEngine = SkyScrapers.Engine.valueOf(engine);
+        Puzzles puzzles = new Puzzles(corpus(size, corpus));
+        return () -> SkyScrapers.solvePuzzle(puzzles.next(), size, solveEngine);
+    }
+
+    /**
+     * Solves the next hard puzzle with a solver filtering lines one Permutation at a time or 64 at a time
+     * @param size - board size N
+     * @param lineFilter - scalar or word
+     */
+    public static Supplier<Object> solve(int size, String lineFilter) {
+        SkyScrapersSolver solver = new SkyScrapersSolver(SkyScrapers.getPermutations(size));
+        solver.setBitSlicedMinCandidates(lineFilter.equals("scalar")
+                ? Integer.MAX_VALUE
+                : SkyScrapersSolver.BIT_SLICED_MIN_CANDIDATES);
+        Puzzles puzzles = new Puzzles(corpus(size, "hard"));
+        return () -> solver.solve(puzzles.next());
+    }
+
+    /**
+     * Generates a puzzle with a unique solution from the next seed
+     */
+    public static Supplier<Object> generate(int size) {
+        SkyScrapersGenerator generator = new SkyScrapersGenerator(size);
+        long[] seed = new long[1];
+        return () -> generator.generate(seed[0]++);
+    }
+
+    /**
+     * Builds a permutation table, without calculating Permutations of clues
+     */
+    public static Supplier<Object> constructPermutations(int size) {
+        return () -> new SkyScrapersPermutations(size);
+    }
+
+    /**
+     * Builds a permutation table and calculates Permutations of every clue
+     */
+    public static Supplier<Object> calculatePermutations(int size) {
+        return () -> {
+            SkyScrapersPermutations permutations = new SkyScrapersPermutations(size);
+            for (int clue = 1; clue <= size; clue++)
+                permutations.getHeightAt(clue, 0, 0);
+            return permutations;
+        };
+    }
+
+    /**
+     * Runs a Board primitive on a 7x7 board with some cells initialized, at a different cell each time
+     * @param operation - isUniqueInRowAndCol, getCandidates, copy or assignAndUndo
+     */
+    public static Supplier<Object> board(String operation) {
+        Board board = new Board(new int[][]{
+                { 1, 3, 4, 2, 0, 0, 0 },
+                { 4, 2, 1, 3, 0, 0, 0 },
+                { 3, 4, 2, 1, 0, 0, 0 },
+                { 2, 1, 3, 4, 0, 0, 0 },
+                { 0, 0, 0, 0, 0, 0, 0 },
+                { 0, 0, 0, 0, 0, 0, 0 },
+                { 0, 0, 0, 0, 0, 0, 0 } });
+        int[] i = new int[1];
+        switch (operation) {
+            case "isUniqueInRowAndCol":
+                return () -> {
+                    i[0]++;
+                    return board.isUniqueInRowAndCol(i[0] % 49, i[0] % 7 + 1);
+                };
+            case "getCandidates":
+                //masks of a 7x7 board are cached Integers, so boxing does not allocate
+                return () -> board.getCandidates(i[0]++ % 49);
+            case "copy":
+                return () -> new Board(board);
+            case "assignAndUndo":
+                return () -> {
+                    i[0]++;
+                    int mark = board.getTrailMark();
+                    board.assign(48, i[0] % 7 + 1);
+                    board.undoTo(mark);
+                    return board;
+                };
+            default:
+                throw new IllegalArgumentException(operation);
+        }
+    }
+
+    /*
+    Puzzles of a corpus taken in turn
+     */
+    private static final class Puzzles {
+        private final List<int[]> puzzles;
+        private int next;
+
+        Puzzles(List<int[]> puzzles) {
+            this.puzzles = puzzles;
+        }
+
+        int[] next() {
+            int[] puzzle = puzzles.get(next);
+            next = (next + 1) % puzzles.size();
+            return puzzle;
+        }
+    }
+
+    /**
+     * Returns a corpus of puzzles by its name, the same puzzles every time
+     * @param size - board size N
+     * @param name - easy, hard or unsolvable
+     */
+    static List<int[]> corpus(int size, String name) {
+        switch (name) {
+            case "easy":
+                return corpus(size, 1.0, false, 1);
+            case "hard":
+                return corpus(size, 0.35, false, 2);
+            case "unsolvable":
+                return corpus(size, 0.5, true, 3);
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    /*
+    Builds puzzles from random Latin squares.
+    Each clue is kept with given probability.
+    Unsolvable puzzles get one clue changed and are kept only if they pass SkyScrapersClueValidator
+    but have no solution, so solving them takes a search.
+    Same seed gives same puzzles.
+     */
+    private static List<int[]> corpus(int size, double keepClue, boolean unsolvable, long seed) {
+        Random random = new Random(seed);
+        SkyScrapersClueValidator validator = unsolvable ? validator(size) : null;
+        List<int[]> puzzles = new ArrayList<>();
+        while (puzzles.size() < CORPUS_SIZE) {
+            int[][] square = randomLatinSquare(size, random);
+            int[] clues = new int[4 * size];
+            int clueCount = 0;
+            for (int position = 0; position < 4 * size; position++) {
+                if (random.nextDouble() < keepClue) {
+                    clues[position] = visibleFrom(square, position, size);
+                    clueCount++;
+                }
+            }
+            if (clueCount == 0)
+                continue;
+
+            if (unsolvable) {
+                int position;
+                do {
+                    position = random.nextInt(4 * size);
+                } while (clues[position] == 0);
+                clues[position] = 1 + (clues[position] + random.nextInt(size - 1)) % size;
+
+                if (validator.findContradiction(clues) != null || SkyScrapers.countSolutions(clues, size, 1) != 0)
+                    continue;
+            }
+            puzzles.add(clues);
+        }
+        return puzzles;
+    }
+
+    private static SkyScrapersClueValidator validator(int size) {
+        int[][] clueCellIndices = new int[4 * size][];
+        for (int position = 0; position < 4 * size; position++)
+            clueCellIndices[position] = new ClueWithCellIndices(0, position, size).getCellIndices();
+        return new SkyScrapersClueValidator(SkyScrapers.getPermutations(size), clueCellIndices);
+    }
+
+    /*
+    Returns a random Latin square: cyclic square with shuffled rows, columns and heights
+     */
+    private static int[][] randomLatinSquare(int size, Random random) {
+        List<Integer> rows = shuffled(size, random);
+        List<Integer> cols = shuffled(size, random);
+        List<Integer> heights = shuffled(size, random);
+
+        int[][] square = new int[size][size];
+        for (int row = 0; row < size; row++)
+            for (int col = 0; col < size; col++)
+                square[row][col] = heights.get((rows.get(row) + cols.get(col)) % size) + 1;
+        return square;
+    }
+
+    private static List<Integer> shuffled(int size, Random random) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            list.add(i);
+        Collections.shuffle(list, random);
+        return list;
+    }
+
+    /*
+    Returns number of skyscrapers visible from a clue position
+     */
+    private static int visibleFrom(int[][] square, int position, int size) {
+        int visible = 0;
+        int highest = 0;
+        for (int index : new ClueWithCellIndices(0, position, size).getCellIndices()) {
+            int height = square[index / size][index % size];
+            if (height > highest) {
+                highest = height;
+                visible++;
+            }
+        }
+        return visible;
+    }
+}
@@ -0,0 +1,48 @@
+package skyscrapers.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Created on 2026-10-18
+ *
+ * Benchmarks of Board primitives on a 7x7 board with some cells initialized
+ *
+ * Allocation rates are reported with the GC profiler, see bench/pom.xml:
+ *   java -jar bench/target/benchmarks.jar -prof gc BoardBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    @Param({ "isUniqueInRowAndCol", "getCandidates", "copy", "assignAndUndo" })
+    String primitive;
+
+    private Supplier<Object> operation;
+
+    @Setup
+    public void setUp() {
+        operation = Operations.get("board", primitive);
+    }
+
+    @Benchmark
+    public Object board() {
+        return operation.get();
+    }
+}
@@ -0,0 +1,48 @@
+package skyscrapers.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Created on 2026-10-18
+ *
+ * Benchmarks of generating puzzles with a unique solution, each operation generates a puzzle from the next seed
+ *
+ * Allocation rates are reported with the GC profiler, see bench/pom.xml:
+ *   java -jar bench/target/benchmarks.jar -prof gc GeneratorBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GeneratorBenchmark {
+
+    @Param({ "4", "5", "6" })
+    int size;
+
+    private Supplier<Object> operation;
+
+    @Setup
+    public void setUp() {
+        operation = Operations.get("generate", size);
+    }
+
+    @Benchmark
+    public Object generate() {
+        return operation.get();
+    }
+}
@@ -0,0 +1,37 @@
+package skyscrapers.bench;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Created on 2026-10-18
+ *
+ * Looks up operations to measure in SkyScrapersBenchmarks of the default package, see there why
+ */
+final class Operations {
+
+    private static final String FACTORY_CLASS = "SkyScrapersBenchmarks";
+
+    private Operations() {
+    }
+
+    /**
+     * Creates an operation with a factory method of SkyScrapersBenchmarks
+     * @param factory - name of the factory method
+     * @param args - arguments of the factory method
+     */
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> get(String factory, Object... args) {
+        try {
+            for (Method method : Class.forName(FACTORY_CLASS).getMethods())
+                if (method.getName().equals(factory) && method.getParameterCount() == args.length)
+                    return (Supplier<Object>) method.invoke(null, args);
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        throw new IllegalArgumentException(factory);
+    }
+}
@@ -0,0 +1,55 @@
+package skyscrapers.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Created on 2026-10-18
+ *
+ * Benchmarks of SkyScrapers.solvePuzzle() on corpora of easy, hard and unsolvable puzzles
+ * for each board size and engine, each operation solves the next puzzle of a corpus
+ *
+ * Allocation rates are reported with the GC profiler, see bench/pom.xml:
+ *   java -jar bench/target/benchmarks.jar -prof gc SolvePuzzleBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SolvePuzzleBenchmark {
+
+    @Param({ "4", "5", "6", "7" })
+    int size;
+
+    @Param({ "easy", "hard", "unsolvable" })
+    String corpus;
+
+    @Param({ "BACKTRACKING", "DANCING_LINKS", "AUTO" })
+    String engine;
+
+    private Supplier<Object> operation;
+
+    @Setup
+    public void setUp() {
+        operation = Operations.get("solvePuzzle", size, corpus, engine);
+    }
+
+    @Benchmark
+    public Object solvePuzzle() {
+        return operation.get();
+    }
+}
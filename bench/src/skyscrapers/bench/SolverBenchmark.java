@@ -0,0 +1,52 @@
+package skyscrapers.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Created on 2026-10-18
+ *
+ * Benchmarks of line filtering in SkyScrapersSolver on hard puzzles:
+ * one Permutation at a time against 64 Permutations at a time
+ *
+ * Allocation rates are reported with the GC profiler, see bench/pom.xml:
+ *   java -jar bench/target/benchmarks.jar -prof gc SolverBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SolverBenchmark {
+
+    @Param({ "4", "5", "6", "7" })
+    int size;
+
+    @Param({ "scalar", "word" })
+    String lineFilter;
+
+    private Supplier<Object> operation;
+
+    @Setup
+    public void setUp() {
+        operation = Operations.get("solve", size, lineFilter);
+    }
+
+    @Benchmark
+    public Object solve() {
+        return operation.get();
+    }
+}
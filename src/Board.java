@@ -1,17 +1,51 @@
+import java.util.Arrays;
+
 /**
  * Represents a Board of blocks
- * Board size is 4 x 4
- * Each cell has either a value 0 (not initialized) or <1 .. 4>
+ * Board size is N x N
+ * Each cell has either a value 0 (not initialized) or <1 .. N>
+ *
+ * Besides cell values the board keeps bitmasks of heights used in each row and column
+ * and a bitmask of heights allowed in each cell. Height h is represented by bit (1 << (h - 1)).
  */
 class Board {
 
     private int[][] board;
     private final int size;
 
+    //heights used in a row / column
+    private final int[] rowMask;
+    private final int[] colMask;
+    //how many times each height is used in a row / column, index = row * (size + 1) + height
+    private final byte[] rowCount;
+    private final byte[] colCount;
+    //heights allowed in a cell
+    private final int[] cellMask;
+    //number of initialized cells
+    private int initializedCount;
+
+    //undo trail, a primitive stack of changes made with assign() and restrictCellMask()
+    //assign() pushes cell index, restrictCellMask() pushes previous cell mask and then ~(cell index)
+    private final int[] trail;
+    private int trailSize;
+
+    // Rep invariant:
+    //  bit h of rowMask[r] is set iff rowCount[r][h] > 0 iff board[r][c] == h for some c
+    //  bit h of colMask[c] is set iff colCount[c][h] > 0 iff board[r][c] == h for some r
+    //  initializedCount == number of non-zero cells
+
     //initialize empty board
     Board(int inSize) {
         size = inSize;
         board = new int[size][size];
+        rowMask = new int[size];
+        colMask = new int[size];
+        rowCount = new byte[size * (size + 1)];
+        colCount = new byte[size * (size + 1)];
+        cellMask = new int[size * size];
+        Arrays.fill(cellMask, fullMask(size));
+        //each cell is assigned once and its mask is restricted at most size times
+        trail = new int[size * size * (1 + 2 * size)];
     }
 
     //initialize board with a copy of another board
@@ -20,15 +54,37 @@ class Board {
         board = new int[size][];
         for(int i = 0; i < size; i++)
             this.board[i] = anotherBoard.board[i].clone();
+        rowMask = anotherBoard.rowMask.clone();
+        colMask = anotherBoard.colMask.clone();
+        rowCount = anotherBoard.rowCount.clone();
+        colCount = anotherBoard.colCount.clone();
+        cellMask = anotherBoard.cellMask.clone();
+        initializedCount = anotherBoard.initializedCount;
+        trail = anotherBoard.trail.clone();
+        trailSize = anotherBoard.trailSize;
     }
 
     Board(int[][] anotherBoard) {
-        size = anotherBoard.length;
-        board = new int[size][];
-        for(int i = 0; i < size; i++)
-            this.board[i] = anotherBoard[i].clone();
+        this(anotherBoard.length);
+        for(int row = 0; row < size; row++)
+            for(int col = 0; col < size; col++)
+                if(anotherBoard[row][col] != 0)
+                    setCell(row * size + col, anotherBoard[row][col]);
+    }
+
+    /**
+     * Returns a bitmask with bits set for all heights 1 .. size
+     */
+    static int fullMask(int size) {
+        return (1 << size) - 1;
     }
 
+    /**
+     * Returns a bitmask with a bit set for given height
+     */
+    static int bit(int value) {
+        return 1 << (value - 1);
+    }
 
     public int getCell(int index) {
         int row = index / size;
@@ -48,30 +104,148 @@ class Board {
         int row = index / size;
         int col = index % size;
 
+        clear(row, col);
+
         board[row][col] = value;
+        initializedCount++;
+        if(rowCount[row * (size + 1) + value]++ == 0)
+            rowMask[row] |= bit(value);
+        if(colCount[col * (size + 1) + value]++ == 0)
+            colMask[col] |= bit(value);
+    }
+
+    /**
+     * Sets cell back to 0 (not initialized)
+     * @param index - index of a cell 0..N*N-1
+     */
+    public void clearCell(int index) {
+
+        if(index < 0 || index >= size*size)
+            throw new IllegalArgumentException();
+
+        clear(index / size, index % size);
+    }
+
+    private void clear(int row, int col) {
+        int value = board[row][col];
+        if(value == 0)
+            return;
+
+        board[row][col] = 0;
+        initializedCount--;
+        if(--rowCount[row * (size + 1) + value] == 0)
+            rowMask[row] &= ~bit(value);
+        if(--colCount[col * (size + 1) + value] == 0)
+            colMask[col] &= ~bit(value);
+    }
+
+    /**
+     * Sets value of an uninitialized cell and records it on the undo trail
+     * @param index - index of a cell 0..N*N-1
+     * @param value - value from 1 to N
+     */
+    public void assign(int index, int value) {
+        if(getCell(index) != 0)
+            throw new IllegalStateException();
+
+        setCell(index, value);
+        trail[trailSize++] = index;
+    }
+
+    /**
+     * Restricts heights allowed in a cell and records previous heights on the undo trail
+     * @param index - index of a cell 0..N*N-1
+     * @param mask - bitmask of heights to keep
+     * @return Returns true if any height was removed
+     */
+    public boolean restrictCellMask(int index, int mask) {
+        int restricted = cellMask[index] & mask;
+        if(restricted == cellMask[index])
+            return false;
+
+        trail[trailSize++] = cellMask[index];
+        trail[trailSize++] = ~index;
+        cellMask[index] = restricted;
+        return true;
+    }
+
+    /**
+     * Returns current position of the undo trail, to be passed to undoTo()
+     */
+    public int getTrailMark() {
+        return trailSize;
+    }
+
+    /**
+     * Reverts all changes made with assign() and restrictCellMask() after the trail was at a given mark
+     * @param mark - value returned by getTrailMark()
+     */
+    public void undoTo(int mark) {
+        while(trailSize > mark) {
+            int entry = trail[--trailSize];
+            if(entry >= 0)
+                clearCell(entry);
+            else
+                cellMask[~entry] = trail[--trailSize];
+        }
+    }
+
+    public int getSize() {
+        return size;
     }
 
     public int[][] getBoard() {
         return board;
     }
 
+    /**
+     * Returns heights that still can be put in a cell
+     * @param index - index of a cell 0..N*N-1
+     * @return Bitmask of heights allowed in the cell and not used yet in its row and column.
+     *          If the cell is initialized returns bit of its height.
+     */
+    public int getCandidates(int index) {
+        int row = index / size;
+        int col = index % size;
+
+        if(board[row][col] != 0)
+            return bit(board[row][col]);
+
+        return cellMask[index] & ~(rowMask[row] | colMask[col]);
+    }
+
+    /**
+     * Returns heights allowed in a cell regardless of its row and column
+     * @param index - index of a cell 0..N*N-1
+     * @return Bitmask of heights allowed in a cell
+     */
+    public int getCellMask(int index) {
+        return cellMask[index];
+    }
+
+    /**
+     * Restricts heights allowed in a cell
+     * @param index - index of a cell 0..N*N-1
+     * @param mask - bitmask of heights allowed in a cell
+     */
+    public void setCellMask(int index, int mask) {
+        if(index < 0 || index >= size*size)
+            throw new IllegalArgumentException();
+
+        cellMask[index] = mask & fullMask(size);
+    }
+
     /**
      * Returns true if all board cells are initialized.
      * @return Returns false if any cell is zero. Otherwise returns true.
      */
     public boolean allCellsInitialized() {
-        for (int[] a : board)
-            for (int i : a) {
-                if(i <= 0 || i > size)
-                    return false;
-            }
-
-         return true;
+        return initializedCount == size * size;
     }
 
     /**
      *
-     * @param index - index of a cell to check 0..15
+     * @param index - index of a cell to check 0..N*N-1
      * @param value - value to check
      * @return Return true if no such value exists in the same row and column as a given cell
      */
@@ -83,13 +257,11 @@ class Board {
         int row = index / size;
         int col = index % size;
 
-        //iterate through the same col and row
-        for(int i = 0; i < size; i++) {
-            if(board[row][i] == value && i != col)
-                return false;
-            if(board[i][col] == value && i != row)
-                return false;
-        }
-        return true;
+        if(value < 1 || value > size || ((rowMask[row] | colMask[col]) & bit(value)) == 0)
+            return true;
+
+        //value is used, check if it is used by any other cell than the given one
+        int self = board[row][col] == value ? 1 : 0;
+        return rowCount[row * (size + 1) + value] == self && colCount[col * (size + 1) + value] == self;
     }
 }
@@ -3,7 +3,13 @@ import java.util.Arrays;
 /**
  * Represents a couple of clue + list of cell indices that clue relates to
  * Cell Indices are ordered in a direction of the clue
- * If the clue relates to row 2 from right to left, then cell indices will be 11, 10, 9, 8
+ * If the clue relates to row 2 from right to left on a 4 x 4 board, then cell indices will be 11, 10, 9, 8
+ *
+ * Clue positions go clockwise around a board of size N:
+ * 0 .. N-1     - top side, columns from left to right, looking down
+ * N .. 2N-1    - right side, rows from top to bottom, looking left
+ * 2N .. 3N-1   - bottom side, columns from right to left, looking up
+ * 3N .. 4N-1   - left side, rows from bottom to top, looking right
  */
 class ClueWithCellIndices {
 
@@ -11,46 +17,99 @@ class ClueWithCellIndices {
     private int[] cellIndices;
 
     /**
-     * @param inClue
-     * @param cluePosition
+     * @param inClue - clue value from 0 to size
+     * @param cluePosition - position of the clue around the board, 0 .. 4 * size - 1
+     * @param size - board size N
      */
-    ClueWithCellIndices(int inClue, int cluePosition) {
+    ClueWithCellIndices(int inClue, int cluePosition, int size) {
 
-        if (inClue >= 0 && inClue <= 4)
+        if (inClue >= 0 && inClue <= size)
             this.clue = inClue;
         else
             throw new IllegalArgumentException();
 
-        int i = cluePosition;
-        switch (cluePosition) {
-            case 0:
-            case 1:
-            case 2:
-            case 3:
-                cellIndices = new int[]{0 + i, 4 + i, 8 + i, 12 + i};
-                break;
+        if (cluePosition < 0 || cluePosition >= 4 * size)
+            throw new IllegalArgumentException();
 
-            case 4:
-            case 5:
-            case 6:
-            case 7:
-                cellIndices = new int[]{3 + (i - 4) * 4, 2 + (i - 4) * 4, 1 + (i - 4) * 4, 0 + (i - 4) * 4};
-                break;
+        cellIndices = new int[size];
 
-            case 8:
-            case 9:
-            case 10:
-            case 11:
-                cellIndices = new int[]{15 - (i - 8), 11 - (i - 8), 7 - (i - 8), 3 - (i - 8)};
-                break;
+        int side = cluePosition / size;
+        int i = cluePosition % size;
+        for (int k = 0; k < size; k++) {
+            switch (side) {
+                case 0:
+                    //column i from top to bottom
+                    cellIndices[k] = k * size + i;
+                    break;
+                case 1:
+                    //row i from right to left
+                    cellIndices[k] = i * size + (size - 1 - k);
+                    break;
+                case 2:
+                    //column (size - 1 - i) from bottom to top
+                    cellIndices[k] = (size - 1 - k) * size + (size - 1 - i);
+                    break;
+                case 3:
+                    //row (size - 1 - i) from left to right
+                    cellIndices[k] = (size - 1 - i) * size + k;
+                    break;
+            }
+        }
+    }
 
-            case 12:
-            case 13:
-            case 14:
-            case 15:
-                cellIndices = new int[]{12 - (i - 12) * 4, 13 - (i - 12) * 4, 14 - (i - 12) * 4, 15 - (i - 12) * 4};
-                break;
+    /**
+     * Returns position of a clue on the opposite side of the same row or column
+     * @param cluePosition - position of a clue around the board, 0 .. 4 * size - 1
+     * @param size - board size N
+     * @return Returns position of the opposite clue, its cell indices are in reverse order
+     */
+    static int oppositePosition(int cluePosition, int size) {
+        int side = cluePosition / size;
+        if (side == 0 || side == 2)
+            return 3 * size - 1 - cluePosition;
+        return 5 * size - 1 - cluePosition;
+    }
+
+    /**
+     * Returns position of a clue after rotating and mirroring a board.
+     * The board is mirrored left to right first, then rotated clockwise.
+     * Rotation by 90 degrees moves each clue a side further clockwise: p -> p + N,
+     * mirroring reverses the order of clues around the board: p -> N - 1 - p.
+     * @param cluePosition - position of a clue around the board, 0 .. 4 * size - 1
+     * @param size - board size N
+     * @param rotations - number of clockwise rotations by 90 degrees, 0 .. 3
+     * @param mirror - true if the board is mirrored
+     * @return Returns position of the clue on the transformed board
+     */
+    static int transformPosition(int cluePosition, int size, int rotations, boolean mirror) {
+        int position = mirror ? size - 1 - cluePosition : cluePosition;
+        position += rotations * size;
+        return ((position % (4 * size)) + 4 * size) % (4 * size);
+    }
+
+    /**
+     * Returns number of skyscrapers visible from the clue position on a board
+     * @param board - board N x N of heights from 1 to N
+     */
+    public int countVisible(int[][] board) {
+        int size = cellIndices.length;
+        int visible = 0;
+        int highest = 0;
+        for (int index : cellIndices) {
+            int height = board[index / size][index % size];
+            if (height > highest) {
+                highest = height;
+                visible++;
+            }
         }
+        return visible;
+    }
+
+    /**
+     * Returns true if there is no clue or the board matches the clue
+     */
+    public boolean isSatisfiedBy(int[][] board) {
+        return clue == 0 || countVisible(board) == clue;
     }
 
     public int getClue() {
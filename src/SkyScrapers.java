@@ -1,4 +1,14 @@
-import java.util.*;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Created on 2017-10-20
@@ -11,14 +21,60 @@ import java.util.*;
  * Higher skyscrapers block the view of lower skyscrapers located behind them
  */
 
-//TODO - make implementation independent of max block height
-    //whether it is 4 or 6
-
 public class SkyScrapers {
     
-    private static final int MAX_HEIGHT = 4; //N
-    private static final SkyScrapersPermutations permutations = new SkyScrapersPermutations(MAX_HEIGHT);
+    private static final int MAX_HEIGHT = 4; //default N
+    static final int MAX_SIZE = 9; //largest supported N
+
+    private static final int MAX_PINNED_SIZE = 7; //permutations for board sizes up to this are small and always kept
+    //number of larger board sizes to keep permutations for, 8 and 9 both fit so mixed traffic does not rebuild them
+    private static final int MAX_CACHED_LARGE_SIZES = 2;
+
+    //permutations for each board size, calculated on first use and shared by all threads
+    private static final SkyScrapersPermutationsCache permutations =
+            new SkyScrapersPermutationsCache(MAX_PINNED_SIZE, MAX_CACHED_LARGE_SIZES, SkyScrapers::dropSolvers);
+
+    //solvers of all threads, so solvers of an evicted size can be dropped; threads that ended are removed by GC
+    private static final Set<AtomicReferenceArray<SkyScrapersSolver>> allSolvers =
+            Collections.synchronizedSet(Collections.newSetFromMap(
+                    new WeakHashMap<AtomicReferenceArray<SkyScrapersSolver>, Boolean>()));
+
+    //solvers reuse their board between puzzles, so each thread gets its own solver for each board size
+    private static final ThreadLocal<AtomicReferenceArray<SkyScrapersSolver>> solvers =
+            new ThreadLocal<AtomicReferenceArray<SkyScrapersSolver>>() {
+        @Override
+        protected AtomicReferenceArray<SkyScrapersSolver> initialValue() {
+            AtomicReferenceArray<SkyScrapersSolver> threadSolvers = new AtomicReferenceArray<>(MAX_SIZE + 1);
+            allSolvers.add(threadSolvers);
+            return threadSolvers;
+        }
+    };
     
+    /**
+     * Engine solving a puzzle after constraints of its clues are propagated
+     */
+    public enum Engine {
+        //depth-first search over Permutations of lines and heights of cells, see {@link SkyScrapersSolver}
+        BACKTRACKING,
+        //exact cover with dancing links, see {@link SkyScrapersDancingLinks}
+        DANCING_LINKS,
+        //dancing links for puzzles with clues on every row and column
+        //and few Permutations left after propagation, backtracking for others
+        AUTO
+    }
+
+    //AUTO picks dancing links when at most this many line Permutations per board size are left after propagation
+    static final int DANCING_LINKS_MAX_PERMUTATIONS_PER_SIZE = 64;
+
+    //dancing links engines of each thread for each board size, created on first use
+    private static final ThreadLocal<SkyScrapersDancingLinks[]> dancingLinks =
+            new ThreadLocal<SkyScrapersDancingLinks[]>() {
+        @Override
+        protected SkyScrapersDancingLinks[] initialValue() {
+            return new SkyScrapersDancingLinks[MAX_SIZE + 1];
+        }
+    };
+
     //TODO // Rep invariant:
     // Abstraction Function:
     // Safety from rep exposure:
@@ -31,186 +87,312 @@ public class SkyScrapers {
      * @return Returns a board 4x4 of 16 skyscrapers heights that matches given clues
      */
     static int[][] solvePuzzle(int[] clues) {
+        return solvePuzzle(clues, MAX_HEIGHT);
+    }
+
+    /**
+     * Given a clues array solves a puzzle and returns board NxN of skyscrapers heights
+     * The number of skyscrapers that you can see in a row or column from the outside matches given clue
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @return Returns a board NxN of skyscrapers heights that matches given clues.
+     *          Returns null if the puzzle could not be solved.
+     */
+    static int[][] solvePuzzle(int[] clues, int size) {
+        return solvePuzzle(clues, size, (SolveStats) null);
+    }
+
+    /**
+     * Given a clues array solves a puzzle and returns board NxN of skyscrapers heights
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @param stats - statistics to fill while solving, null to not collect them
+     * @return Returns a board NxN of skyscrapers heights that matches given clues.
+     *          Returns null if the puzzle could not be solved.
+     */
+    public static int[][] solvePuzzle(int[] clues, int size, SolveStats stats) {
 
         //System.out.println("clues = [" + Arrays.toString(clues) + "]");
 
-        if (clues.length < MAX_HEIGHT * MAX_HEIGHT)
-            throw new RuntimeException();
+        checkPuzzle(clues, size);
 
-        //list of pairs: clue + cell indices that clue concerns
-        List<ClueWithCellIndices> cluesWithCellIndices = matchCluesWithCellIndices(clues);
+        SkyScrapersSolver solver = getSolver(size);
+        boolean solved;
+        solver.setStats(stats);
+        try {
+            solved = solver.solve(clues);
+        } finally {
+            solver.setStats(null);
+        }
+        if (!solved)
+            return null; //could not solve the puzzle
 
-        //if there are no clues > 0
-        if (cluesWithCellIndices.size() == 0)
-            throw new RuntimeException();
+        //all cells have a skyscraper
+        //return complete board of skyscrapers
+        int[][] result = new int[size][size];
+        solver.copyBoard(result);
+        return result;
+    }
 
-        //sort list from greater clue to less one
-        cluesWithCellIndices.sort(new Comparator<ClueWithCellIndices>() {
-            @Override
-            public int compare(ClueWithCellIndices o1, ClueWithCellIndices o2) {
-                return (((Integer) o2.getClue()).compareTo((Integer) o1.getClue()));
-            }
-        });
+    /**
+     * Given a clues array solves a puzzle with a given engine and returns board NxN of skyscrapers heights.
+     * All engines return a solution for every solvable puzzle, the solution may differ if there are several.
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @param engine - engine to solve the puzzle with
+     * @return Returns a board NxN of skyscrapers heights that matches given clues.
+     *          Returns null if the puzzle could not be solved.
+     */
+    public static int[][] solvePuzzle(int[] clues, int size, Engine engine) {
 
-        //initialize new board to put skyscrapers on it
-        Board board = new Board(MAX_HEIGHT);
-        //try populate the board with skyscrapers based on clues
-        Optional<Board> result = calculateBoardForClues(board, cluesWithCellIndices, 0);
+        checkPuzzle(clues, size);
 
-        if(!result.isPresent())
-            return null; //could not solve the puzzle
+        SkyScrapersSolver solver = getSolver(size);
+        if (!solver.prepare(clues))
+            return null; //clues are contradictory
 
-        //check if any uninitialized cells left
-        board = result.get();
-        if(!board.allCellsInitialized()) {
-            //initialize them
-            result = calculateBlocksForCellsWithoutClues(board, 0);
-            if (!result.isPresent())
-                return null; //could not solve the puzzle
-            board = result.get();
+        int[][] result = new int[size][size];
+        if (engine == Engine.DANCING_LINKS || engine == Engine.AUTO && preferDancingLinks(solver)) {
+            SkyScrapersDancingLinks links = getDancingLinks(size);
+            if (!links.solve(solver))
+                return null;
+            links.copyBoard(result);
+        } else {
+            if (!solver.search())
+                return null;
+            solver.copyBoard(result);
         }
+        return result;
+    }
 
-        //all cells have a skyscraper
-        //return complete board of skyscrapers
-        return board.getBoard();
+    /*
+    Returns true if dancing links should solve a prepared puzzle faster:
+    its matrix is small to build, and there are no cells left to branch on one by one
+     */
+    static boolean preferDancingLinks(SkyScrapersSolver solver) {
+        int size = solver.getSize();
+        if (solver.getLineCount() < 2 * size)
+            return false;
+
+        int left = 0;
+        for (int line = 0; line < solver.getLineCount(); line++)
+            left += solver.getLineSize(line);
+        return left <= DANCING_LINKS_MAX_PERMUTATIONS_PER_SIZE * size;
     }
-    
+
+    /**
+     * Solves a puzzle into a given board, without allocating
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @param out - board NxN to write skyscrapers heights to
+     * @return Returns false if the puzzle could not be solved, out is unchanged then
+     */
+    static boolean solveInto(int[] clues, int size, int[][] out) {
+
+        checkPuzzle(clues, size);
+
+        SkyScrapersSolver solver = getSolver(size);
+        if (!solver.solve(clues))
+            return false;
+
+        solver.copyBoard(out);
+        return true;
+    }
+
+    /**
+     * Given a clues array and heights given in some cells solves a puzzle and returns board NxN of skyscrapers heights
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param givens - board NxN of given heights from 1 to N, 0 in cells to solve
+     * @param size - board size N, from 1 to 9
+     * @return Returns a board NxN of skyscrapers heights that matches given clues and given heights.
+     *          Returns null if the puzzle could not be solved.
+     */
+    public static int[][] solvePuzzle(int[] clues, int[][] givens, int size) {
+
+        checkPuzzle(clues, size);
+
+        SkyScrapersSolver solver = getSolver(size);
+        if (!solver.solve(clues, givens))
+            return null; //could not solve the puzzle
+
+        int[][] result = new int[size][size];
+        solver.copyBoard(result);
+        return result;
+    }
+
     /**
-     * Calculates list of pairs: clue + cell indices that clue concerns
-     *
-     * @param clues - array of 16 clues
-     * @return List of pairs: clue + cell indices that clue concerns
+     * Given a clues array solves a puzzle within a time and a node limit.
+     * The search also stops when the solving thread is interrupted, the interrupt flag is kept set then.
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @param timeout - max time to solve the puzzle, Long.MAX_VALUE if not limited
+     * @param unit - unit of timeout
+     * @param maxNodes - max number of search nodes to visit, Long.MAX_VALUE if not limited
+     * @return Returns SOLVED with the board, UNSOLVABLE if the puzzle has no solution
+     *          (with the contradiction if the clues were rejected without searching),
+     *          TIMED_OUT if a limit was reached or CANCELLED if the thread was interrupted first
      */
-    static List<ClueWithCellIndices> matchCluesWithCellIndices(int[] clues) {
+    public static SolveResult solvePuzzle(int[] clues, int size, long timeout, TimeUnit unit, long maxNodes) {
 
-        final List<ClueWithCellIndices> cluesWithCellIndices = new ArrayList<>();
+        checkPuzzle(clues, size);
 
-        for (int i = 0; i < clues.length; i++) {
-            //ignore 0 clues
-            if (clues[i] > 0)
-                cluesWithCellIndices.add(new ClueWithCellIndices(clues[i], i));
+        SkyScrapersSolver solver = getSolver(size);
+        boolean solved;
+        solver.setLimits(maxNodes, timeout == Long.MAX_VALUE ? Long.MAX_VALUE : unit.toNanos(timeout));
+        try {
+            solved = solver.solve(clues);
+        } finally {
+            solver.setLimits(Long.MAX_VALUE, Long.MAX_VALUE);
         }
 
-        return cluesWithCellIndices;
+        if (!solved) {
+            if (solver.getStopReason() != null)
+                return new SolveResult(solver.getStopReason(), null);
+            return new SolveResult(SolveResult.Outcome.UNSOLVABLE, null, solver.getContradiction());
+        }
+
+        int[][] result = new int[size][size];
+        solver.copyBoard(result);
+        return new SolveResult(SolveResult.Outcome.SOLVED, result);
     }
 
     /**
-     * Recursive method.
-     * Try 1st Permutation for 1st clue.
-     * Go to 2nd clue.
-     * Try 1st Permutation for 2nd clue.
-     * If it fails try 2nd Permutation for 2nd clue
-     * If all Permutations fail return to 1st clue.
-     * Try 2nd Permutation for 1st clue.
-     *
-     * Finish when either all Permutations where tried and it failed
-     * or found right Permutation for all clues.
-     *
-     * @param inputBoard - Board of blocks
-     * @param cluesWithCellIndices - list of clues
-     * @param clueIndex - look for Permutations for given clue
-     * @return Board if found right Permutation for all clues.
-     *          Empty Optional if checked all possible Permutations and failed
-     */
-    private static Optional<Board> calculateBoardForClues(Board inputBoard, List<ClueWithCellIndices> cluesWithCellIndices, int clueIndex) {
-
-        if(clueIndex >= cluesWithCellIndices.size())
-            return Optional.of(inputBoard);
-
-        int blockPermutationCounter = 0;
-        int thisClue = cluesWithCellIndices.get(clueIndex).getClue();
-        final int[] clueCellIndices = cluesWithCellIndices.get(clueIndex).getCellIndices();
-
-        boolean tryNextPermutation;
-        do {
-            tryNextPermutation = false;
-            //start with clear thisBoard
-            Board thisBoard = new Board(inputBoard);
-            //get block Permutation for thisClue and index = blockPermutationCounter
-            List<Integer> blockPermutation = permutations.getPermutationsForClueAtIndex(thisClue, blockPermutationCounter);
-            
-            if(blockPermutation == null)
-                //if does not exist (all Permutations used) return failure
-                return Optional.empty();
-
-            //check if all thisClue cells are equal to blocks from Permutation or equal 0
-            for(int i = 0; i < clueCellIndices.length; i++) {
-                if(thisBoard.getCell(clueCellIndices[i]) != blockPermutation.get(i))
-                    if(thisBoard.getCell(clueCellIndices[i]) == 0)
-                        //if not but they are == 0 => replace them with blocks from Permutation
-                        thisBoard.setCell(clueCellIndices[i], blockPermutation.get(i));
-                    else {
-                        //if not => try another Permutation
-                        tryNextPermutation = true;
-                        break;
-                    }
-            }
-            
-            if(!tryNextPermutation) {
-                //thisBoard is correct for thisClue
-                //now try and recalculate thisBoard for next clue
-                Optional<Board> opt = calculateBoardForClues(thisBoard, cluesWithCellIndices, clueIndex+1);
-                if(opt.isPresent())
-                    //SUCCESS, calculated board for thisClue and all succesors
-                    return opt;
-                else
-                    //failed, we need to try next Permutation of blocks for thisCLue
-                    tryNextPermutation = true;
-            }
-            blockPermutationCounter ++;
-        } while (tryNextPermutation); //until all Permutations where tried or solution is found
+     * Counts solutions of a puzzle, stops at a limit.
+     * Use limit 2 to check that a puzzle has exactly one solution.
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @param limit - number of solutions to stop counting at
+     * @return Returns number of solutions, at most limit
+     */
+    public static long countSolutions(int[] clues, int size, long limit) {
+
+        checkPuzzle(clues, size);
 
-        //should never get here
-        return Optional.empty();
+        return getSolver(size).countSolutions(clues, limit);
     }
-    
 
     /**
-     * Recursive method.
-     * Fill uninitialized cells with right block height, unique in a row and a column
-     * @param inputBoard - Board of blocks
-     * @param cellIndex
-     * @return
-     */
-    private static Optional<Board> calculateBlocksForCellsWithoutClues(Board inputBoard, int cellIndex) {
-
-        if (cellIndex < 0)
-            throw new IllegalArgumentException();
-        if (inputBoard.allCellsInitialized() || cellIndex > 15)
-            return Optional.of(inputBoard);
-
-        int index = cellIndex;
-        Board board = new Board(inputBoard);
-
-        //find first uninitialized cell from given index
-        while (index < 16) {
-            if (board.getCell(index) == 0)
-                break;
-            index++;
+     * Returns all solutions of a puzzle.
+     * Solutions are found one by one as the stream is consumed, memory used does not grow with their number.
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @return Returns a sequential stream of boards NxN, empty if the puzzle has no solution
+     */
+    public static Stream<int[][]> solutions(int[] clues, int size) {
+
+        checkPuzzle(clues, size);
+
+        //the stream may be consumed while this thread solves other puzzles, so it gets its own solver
+        SkyScrapersSolver solver = new SkyScrapersSolver(getPermutations(size));
+        Iterator<int[][]> iterator = new SolutionIterator(solver, solver.prepare(clues));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /*
+    Iterates over solutions of a prepared solver
+     */
+    private static class SolutionIterator implements Iterator<int[][]> {
+
+        private final SkyScrapersSolver solver;
+        //true if the board holds a solution not returned yet
+        private boolean found;
+        private boolean searched;
+        private boolean done;
+
+        SolutionIterator(SkyScrapersSolver solver, boolean prepared) {
+            this.solver = solver;
+            this.done = !prepared;
         }
 
-        if(index >= 16)
-            //could not find uninitialized cell
-            return Optional.of(board);
-
-        //uninitialized cell at index
-        //seek right block
-        for(int block = 1; block <= 4; block++) {
-            if(board.isUniqueInRowAndCol(index, block)) {
-                //set new block value
-                board.setCell(index, block);
-                //now try and seek right block for next index
-                Optional<Board> opt = calculateBlocksForCellsWithoutClues(board, index+1);
-                if(opt.isPresent())
-                    //SUCCESS
-                    return opt;
-                //else - try next block
+        @Override
+        public boolean hasNext() {
+            if (!found && !done) {
+                found = searched ? solver.nextSolution() : solver.search();
+                searched = true;
+                done = !found;
             }
+            return found;
         }
 
-        //if got here it means could not find right Permutation of block
-        return Optional.empty();
+        @Override
+        public int[][] next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            found = false;
+            int[][] result = new int[solver.getSize()][solver.getSize()];
+            solver.copyBoard(result);
+            return result;
+        }
     }
-}
 
+    /**
+     * Checks a board: every row and column has each height from 1 to N once
+     * and every clue is the number of skyscrapers visible from it
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @param board - board NxN to check
+     * @return Returns true if the board is a solution of the puzzle
+     */
+    public static boolean isSolution(int[] clues, int size, int[][] board) {
+
+        checkPuzzle(clues, size);
+
+        return getPermutations(size).getVisibility().isSolution(clues, board);
+    }
+
+    /*
+    Checks the board size and the number of clues of a puzzle, throws IllegalArgumentException if they do not fit
+     */
+    static void checkPuzzle(int[] clues, int size) {
+        if (size <= 0 || size > MAX_SIZE)
+            throw new IllegalArgumentException("board size " + size + " is not supported");
+
+        if (clues.length < 4 * size)
+            throw new IllegalArgumentException("expected " + 4 * size + " clues, got " + clues.length);
+    }
 
+    /*
+    Returns this thread's solver for given board size, creates it on first use
+    or when permutations it uses were evicted from the cache
+     */
+    static SkyScrapersSolver getSolver(int size) {
+        AtomicReferenceArray<SkyScrapersSolver> threadSolvers = solvers.get();
+        SkyScrapersPermutations sizePermutations = getPermutations(size);
+        SkyScrapersSolver solver = threadSolvers.get(size);
+        if (solver == null || solver.getPermutations() != sizePermutations) {
+            solver = new SkyScrapersSolver(sizePermutations);
+            threadSolvers.set(size, solver);
+        }
+        return solver;
+    }
+
+    /*
+    Drops solvers of all threads for a board size whose permutations were evicted from the cache,
+    so the solvers do not keep the permutations reachable
+     */
+    private static void dropSolvers(int size) {
+        synchronized (allSolvers) {
+            for (AtomicReferenceArray<SkyScrapersSolver> threadSolvers : allSolvers)
+                threadSolvers.set(size, null);
+        }
+    }
+
+    /*
+    Returns this thread's dancing links engine for given board size, creates it on first use
+     */
+    private static SkyScrapersDancingLinks getDancingLinks(int size) {
+        SkyScrapersDancingLinks[] threadEngines = dancingLinks.get();
+        if (threadEngines[size] == null)
+            threadEngines[size] = new SkyScrapersDancingLinks(size);
+        return threadEngines[size];
+    }
+
+    /*
+    Returns permutations for given board size, calculates them on first use
+     */
+    static SkyScrapersPermutations getPermutations(int size) {
+        return permutations.get(size);
+    }
+}
@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Solves many puzzles at once on a pool of threads.
+ *
+ * Puzzles are split into chunks, each chunk is solved by one thread.
+ * Every thread reuses its own solver for each board size (see {@link SkyScrapers#solvePuzzle(int[], int)}),
+ * so threads do not share any mutable state.
+ *
+ * Instances are thread safe. Call shutdown() when the solver is no longer needed.
+ */
+public class SkyScrapersBatchSolver {
+
+    //puzzles solved by one task
+    private static final int CHUNK_SIZE = 64;
+    //records of a file solved by one task
+    private static final int FILE_CHUNK_SIZE = 4096;
+
+    private final ExecutorService executor;
+
+    /**
+     * Listener of puzzles solved by solveAll(clues, size, listener)
+     */
+    public interface ResultListener {
+        /**
+         * Called from a worker thread once a puzzle is solved
+         * @param index - index of the puzzle in the input
+         * @param clues - clues of the puzzle
+         * @param board - solution, null if the puzzle could not be solved
+         */
+        void solved(int index, int[] clues, int[][] board);
+    }
+
+    /**
+     * Creates a solver with one thread per available processor
+     */
+    public SkyScrapersBatchSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads - number of threads to solve puzzles with
+     */
+    public SkyScrapersBatchSolver(int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException();
+
+        executor = SkyScrapersExecutors.newDaemonPool("skyscrapers-batch", threads);
+    }
+
+    /**
+     * Solves a puzzle on one of the pool threads
+     * @param clues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @return Returns a future of a board NxN, the board is null if the puzzle could not be solved
+     */
+    public CompletableFuture<int[][]> solveAsync(final int[] clues, final int size) {
+        return CompletableFuture.supplyAsync(() -> SkyScrapers.solvePuzzle(clues, size), executor);
+    }
+
+    /**
+     * Solves all puzzles and returns solutions in input order
+     * @param clues - clues of puzzles, each an array of 4 * N clues
+     * @param size - board size N, from 1 to 9
+     * @return Returns a list of boards NxN, a board is null if its puzzle could not be solved
+     */
+    public List<int[][]> solveAll(Iterable<int[]> clues, final int size) {
+
+        List<CompletableFuture<int[][][]>> chunks = new ArrayList<>();
+        for (final int[][] chunk : chunks(clues)) {
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                int[][][] boards = new int[chunk.length][][];
+                for (int i = 0; i < chunk.length; i++)
+                    boards[i] = SkyScrapers.solvePuzzle(chunk[i], size);
+                return boards;
+            }, executor));
+        }
+
+        List<int[][]> result = new ArrayList<>(chunks.size() * CHUNK_SIZE);
+        for (CompletableFuture<int[][][]> chunk : chunks)
+            result.addAll(Arrays.asList(SkyScrapersExecutors.join(chunk)));
+        return result;
+    }
+
+    /**
+     * Solves all puzzles, passing each solution to a listener as soon as it is found.
+     * Returns once all puzzles are solved.
+     * @param clues - clues of puzzles, each an array of 4 * N clues
+     * @param size - board size N, from 1 to 9
+     * @param listener - listener called from worker threads, in order of completion
+     */
+    public void solveAll(Iterable<int[]> clues, final int size, final ResultListener listener) {
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        int first = 0;
+        for (final int[][] chunk : chunks(clues)) {
+            final int chunkFirst = first;
+            chunks.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < chunk.length; i++)
+                    listener.solved(chunkFirst + i, chunk[i], SkyScrapers.solvePuzzle(chunk[i], size));
+            }, executor));
+            first += chunk.length;
+        }
+
+        for (CompletableFuture<Void> chunk : chunks)
+            SkyScrapersExecutors.join(chunk);
+    }
+
+    /**
+     * Solves all puzzles of a file and writes them with their solutions to another file,
+     * both in the format of {@link SkyScrapersRecordFormat}.
+     * Solutions in the input file are ignored.
+     * Each task maps its part of both files and solves records straight from one mapping into the other,
+     * puzzles are not copied into separate objects.
+     * @param in - file of puzzles
+     * @param out - file to write, replaced if it exists
+     * @return Returns number of puzzles solved, including ones without a solution
+     */
+    public long solveFile(Path in, Path out) throws IOException {
+
+        try (SkyScrapersRecordReader reader = new SkyScrapersRecordReader(in);
+             FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            final int size = reader.getSize();
+            final int recordSize = SkyScrapersRecordFormat.recordSize(size);
+            long count = reader.getRecordCount();
+
+            ByteBuffer header = ByteBuffer.allocate(SkyScrapersRecordFormat.HEADER_SIZE);
+            SkyScrapersRecordFormat.writeHeader(header, size);
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (long first = 0; first < count; first += FILE_CHUNK_SIZE) {
+                final long chunkFirst = first;
+                final int chunkCount = (int) Math.min(FILE_CHUNK_SIZE, count - first);
+                chunks.add(CompletableFuture.runAsync(() -> {
+                    MappedByteBuffer output;
+                    try {
+                        output = channel.map(FileChannel.MapMode.READ_WRITE,
+                                SkyScrapersRecordFormat.HEADER_SIZE + chunkFirst * recordSize, (long) chunkCount * recordSize);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    int[] clues = new int[4 * size];
+                    int[][] board = new int[size][size];
+                    for (int i = 0; i < chunkCount; i++) {
+                        reader.readClues(chunkFirst + i, clues);
+                        boolean solved = SkyScrapers.solveInto(clues, size, board);
+                        SkyScrapersRecordFormat.writeRecord(output, i * recordSize, size, clues, solved ? board : null);
+                    }
+                }, executor));
+            }
+
+            try {
+                //wait for all chunks before the files are closed
+                SkyScrapersExecutors.join(CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Stops worker threads, puzzles already submitted are solved first
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /*
+    Splits puzzles into chunks of CHUNK_SIZE
+     */
+    private static List<int[][]> chunks(Iterable<int[]> clues) {
+        List<int[][]> chunks = new ArrayList<>();
+        List<int[]> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int[] puzzle : clues) {
+            chunk.add(puzzle);
+            if (chunk.size() == CHUNK_SIZE) {
+                chunks.add(chunk.toArray(new int[CHUNK_SIZE][]));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            chunks.add(chunk.toArray(new int[chunk.size()][]));
+        return chunks;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Finds clues that cannot have a solution before searching for one.
+ *
+ * Checks:
+ * - clues on both ends of a row or column: there has to be a Permutation seen as both of them,
+ *   e.g. a + b <= N + 1
+ * - clues at the edge limit heights of cells next to them (see edgeMask()):
+ *   every cell has to keep some height, e.g. clue N and clue 1 meeting at a corner leave none,
+ *   every height has to keep some cell in each row and column,
+ *   and no two cells of a row or column may be left with the same single height, e.g. two clues 1 on one side
+ *
+ * Takes time linear in the number of cells and does not allocate unless a contradiction is found.
+ * Passing the checks does not mean the puzzle has a solution.
+ *
+ * Validator is not thread safe, use one instance per thread.
+ */
+class SkyScrapersClueValidator {
+
+    private final int size;
+    private final SkyScrapersPermutations permutations;
+    //cell indices for each clue position, ordered in a direction of the clue
+    private final int[][] clueCellIndices;
+    //heights still possible for each cell
+    private final int[] cellMasks;
+
+    /**
+     * @param permutations - permutations for the board size, size is taken from permutations.getMaxHeight()
+     * @param clueCellIndices - cell indices for each clue position, see {@link ClueWithCellIndices}
+     */
+    SkyScrapersClueValidator(SkyScrapersPermutations permutations, int[][] clueCellIndices) {
+        this.permutations = permutations;
+        this.size = permutations.getMaxHeight();
+        this.clueCellIndices = clueCellIndices;
+        this.cellMasks = new int[size * size];
+    }
+
+    /**
+     * Returns heights possible for a cell at distance d from the edge with a given clue:
+     * clue 1 - the highest skyscraper is at the edge,
+     * clue N - skyscrapers go from the lowest to the highest,
+     * clue c - a cell at distance d from the edge is not higher than N - c + 1 + d
+     * @param clue - clue from 0 to size, 0 if there is no clue
+     * @param d - distance of the cell from the edge, 0 .. size - 1
+     * @param size - board size N
+     * @return Returns mask of possible heights, see {@link Board#bit(int)}
+     */
+    static int edgeMask(int clue, int d, int size) {
+        if (clue == 1)
+            return d == 0 ? Board.bit(size) : Board.fullMask(size);
+        if (clue == size)
+            return Board.bit(d + 1);
+        if (clue > 1 && d < clue - 1)
+            return Board.fullMask(size - clue + 1 + d);
+        return Board.fullMask(size);
+    }
+
+    /**
+     * Checks clues for contradictions
+     * @param clues - array of 4 * N clues from 0 to N, see {@link ClueWithCellIndices}
+     * @return Returns description of the first contradiction found, null if none was found
+     */
+    String findContradiction(int[] clues) {
+
+        //rows and columns with clues on both ends
+        for (int position = 0; position < 2 * size; position++) {
+            int opposite = ClueWithCellIndices.oppositePosition(position, size);
+            if (clues[position] > 0 && clues[opposite] > 0
+                    && permutations.getPermutationsForCluePairCount(clues[position], clues[opposite]) == 0)
+                return "clues " + clues[position] + " at " + position + " and " + clues[opposite] + " at " + opposite
+                        + " cannot both be seen in a line of " + size;
+        }
+
+        //heights left for cells by clues at the edge
+        int full = Board.fullMask(size);
+        for (int index = 0; index < size * size; index++)
+            cellMasks[index] = full;
+        for (int position = 0; position < 4 * size; position++) {
+            int clue = clues[position];
+            if (clue == 0)
+                continue;
+
+            int[] cellIndices = clueCellIndices[position];
+            for (int d = 0; d < size; d++) {
+                int index = cellIndices[d];
+                cellMasks[index] &= edgeMask(clue, d, size);
+                if (cellMasks[index] == 0)
+                    return "clues leave no height for cell " + index;
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            //row i: cells i*size + k, column i: cells k*size + i
+            String contradiction = findLineContradiction(i * size, 1);
+            if (contradiction == null)
+                contradiction = findLineContradiction(i, size);
+            if (contradiction != null)
+                return contradiction;
+        }
+
+        return null;
+    }
+
+    /*
+    Checks heights left for cells of a row or column given by its first cell and step between cells
+     */
+    private String findLineContradiction(int first, int step) {
+        int union = 0;
+        int singles = 0;
+        for (int k = 0; k < size; k++) {
+            int index = first + k * step;
+            int mask = cellMasks[index];
+            union |= mask;
+            if ((mask & (mask - 1)) == 0) {
+                if ((singles & mask) != 0)
+                    return "clues leave height " + (Integer.numberOfTrailingZeros(mask) + 1)
+                            + " as the only one for two cells in line of cell " + index;
+                singles |= mask;
+            }
+        }
+
+        if (union != Board.fullMask(size))
+            return "clues leave no cell for some height in line of cell " + first;
+        return null;
+    }
+}
@@ -0,0 +1,356 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Corpus of puzzles of one board size sorted into difficulty buckets, see {@link SkyScrapersDifficulty},
+ * with a baseline of solver effort for tracking performance regressions.
+ *
+ * Usage: java SkyScrapersCorpus [-s seed] [-c puzzles per bucket] directory [sizes]
+ * writes a corpus file for each board size, 4 to 7 by default, to the directory.
+ *
+ * Puzzles are generated by {@link SkyScrapersGenerator} from a seed, so a corpus can be generated again.
+ * Each generated puzzle gives up to three candidates: the puzzle itself, the puzzle with about half of the removed
+ * clues put back, and the puzzle with one clue changed so that it has no solution. A changed puzzle is only kept
+ * if {@link SkyScrapersClueValidator} finds no contradiction in its clues and the solver has to search to reject it.
+ * Candidates are rated and kept until each bucket is full.
+ * Small boards have few HARD puzzles and few unsolvable ones that need a search, so a bucket may stay short
+ * after MAX_SEEDS_PER_PUZZLE * count seeds.
+ *
+ * File format, text, one item per line, lines starting with # are comments:
+ *   version V
+ *   size N
+ *   seed S
+ *   puzzle BUCKET NODES CLUES - a puzzle, search nodes needed to solve it, its 4 * N clues separated by commas
+ *   time BUCKET MICROS - time to solve all puzzles of a bucket when the corpus was generated
+ * Node counts and times are the baseline. Versions differ when the way puzzles are generated or rated changes.
+ */
+public class SkyScrapersCorpus {
+
+    static final int VERSION = 3;
+
+    private static final long DEFAULT_SEED = 2026;
+    private static final int DEFAULT_COUNT = 10;
+    //seeds tried per puzzle wanted in each bucket before giving up on filling buckets
+    private static final int MAX_SEEDS_PER_PUZZLE = 50;
+    //clues changed one at a time per seed looking for an unsolvable puzzle that needs a search
+    private static final int MAX_CHANGES = 8;
+    //runs of a bucket to measure, the fastest one counts
+    private static final int TIMING_RUNS = 5;
+
+    /**
+     * Puzzle of a corpus with its baseline
+     */
+    static final class Entry {
+        private final SkyScrapersDifficulty.Bucket bucket;
+        private final long nodes;
+        private final int[] clues;
+
+        Entry(SkyScrapersDifficulty.Bucket bucket, long nodes, int[] clues) {
+            this.bucket = bucket;
+            this.nodes = nodes;
+            this.clues = clues;
+        }
+
+        SkyScrapersDifficulty.Bucket getBucket() {
+            return bucket;
+        }
+
+        /**
+         * Returns search nodes needed to solve the puzzle when the corpus was generated
+         */
+        long getNodes() {
+            return nodes;
+        }
+
+        int[] getClues() {
+            return clues;
+        }
+    }
+
+    private final int version;
+    private final int size;
+    private final long seed;
+    private final List<Entry> entries;
+    private final Map<SkyScrapersDifficulty.Bucket, Long> micros;
+
+    SkyScrapersCorpus(int version, int size, long seed, List<Entry> entries,
+                      Map<SkyScrapersDifficulty.Bucket, Long> micros) {
+        this.version = version;
+        this.size = size;
+        this.seed = seed;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+        this.micros = new EnumMap<>(micros);
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns puzzles of a bucket
+     */
+    List<int[]> getPuzzles(SkyScrapersDifficulty.Bucket bucket) {
+        List<int[]> puzzles = new ArrayList<>();
+        for (Entry entry : entries)
+            if (entry.bucket == bucket)
+                puzzles.add(entry.clues);
+        return puzzles;
+    }
+
+    /**
+     * Returns baseline search nodes of all puzzles of a bucket
+     */
+    long getNodes(SkyScrapersDifficulty.Bucket bucket) {
+        long nodes = 0;
+        for (Entry entry : entries)
+            if (entry.bucket == bucket)
+                nodes += entry.nodes;
+        return nodes;
+    }
+
+    /**
+     * Returns baseline time to solve all puzzles of a bucket in microseconds, 0 if the bucket is empty
+     */
+    long getMicros(SkyScrapersDifficulty.Bucket bucket) {
+        Long value = micros.get(bucket);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Generates a corpus
+     * @param size - board size N, from 2 to SkyScrapersGenerator.MAX_SIZE
+     * @param count - number of puzzles in each bucket
+     * @param seed - seed of the generator, the same seed gives the same puzzles
+     */
+    static SkyScrapersCorpus generate(int size, int count, long seed) {
+        if (size <= 1 || size > SkyScrapersGenerator.MAX_SIZE || count <= 0)
+            throw new IllegalArgumentException();
+
+        SkyScrapersGenerator generator = new SkyScrapersGenerator(size);
+        SkyScrapersClueValidator validator = validator(size);
+        Map<SkyScrapersDifficulty.Bucket, List<Entry>> buckets = new EnumMap<>(SkyScrapersDifficulty.Bucket.class);
+        for (SkyScrapersDifficulty.Bucket bucket : SkyScrapersDifficulty.Bucket.values())
+            buckets.put(bucket, new ArrayList<Entry>());
+
+        for (int i = 0; i < MAX_SEEDS_PER_PUZZLE * count && !full(buckets, count); i++) {
+            long puzzleSeed = SkyScrapersGenerator.puzzleSeed(seed, i);
+            Random random = new Random(puzzleSeed);
+            int[] clues = generator.generate(puzzleSeed);
+            int[][] solution = generator.getSolution();
+
+            //easier: about half of the removed clues put back
+            int[] denser = clues.clone();
+            for (int position = 0; position < 4 * size; position++)
+                if (denser[position] == 0 && random.nextBoolean())
+                    denser[position] = new ClueWithCellIndices(0, position, size).countVisible(solution);
+
+            //without a solution: a clue changed to another value,
+            //puzzles rejected by clues alone or by propagation without a search do not count
+            int[] changed = null;
+            for (int change = 0; change < MAX_CHANGES && changed == null; change++) {
+                int[] candidate = clues.clone();
+                int position;
+                do {
+                    position = random.nextInt(4 * size);
+                } while (candidate[position] == 0);
+                candidate[position] = 1 + (candidate[position] + random.nextInt(size - 1)) % size;
+                if (validator.findContradiction(candidate) != null)
+                    continue;
+                SolveStats stats = new SolveStats();
+                if (SkyScrapers.solvePuzzle(candidate, size, stats) == null && stats.getNodes() > 0)
+                    changed = candidate;
+            }
+
+            for (int[] candidate : changed == null ? new int[][]{ clues, denser } : new int[][]{ clues, denser, changed }) {
+                SkyScrapersDifficulty difficulty = SkyScrapersDifficulty.rate(candidate, size);
+                List<Entry> bucket = buckets.get(difficulty.getBucket());
+                if (bucket.size() < count)
+                    bucket.add(new Entry(difficulty.getBucket(), difficulty.getScore(), candidate));
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        Map<SkyScrapersDifficulty.Bucket, Long> micros = new EnumMap<>(SkyScrapersDifficulty.Bucket.class);
+        for (Map.Entry<SkyScrapersDifficulty.Bucket, List<Entry>> bucket : buckets.entrySet()) {
+            entries.addAll(bucket.getValue());
+            List<int[]> puzzles = new ArrayList<>();
+            for (Entry entry : bucket.getValue())
+                puzzles.add(entry.clues);
+            if (!puzzles.isEmpty())
+                micros.put(bucket.getKey(), measureMicros(puzzles, size));
+        }
+        return new SkyScrapersCorpus(VERSION, size, seed, entries, micros);
+    }
+
+    private static SkyScrapersClueValidator validator(int size) {
+        int[][] clueCellIndices = new int[4 * size][];
+        for (int position = 0; position < 4 * size; position++)
+            clueCellIndices[position] = new ClueWithCellIndices(0, position, size).getCellIndices();
+        return new SkyScrapersClueValidator(SkyScrapers.getPermutations(size), clueCellIndices);
+    }
+
+    private static boolean full(Map<SkyScrapersDifficulty.Bucket, List<Entry>> buckets, int count) {
+        for (List<Entry> bucket : buckets.values())
+            if (bucket.size() < count)
+                return false;
+        return true;
+    }
+
+    /**
+     * Measures time to solve puzzles: solves them once to warm up, then returns the fastest of several runs
+     * @return Returns time in microseconds
+     */
+    static long measureMicros(List<int[]> puzzles, int size) {
+        for (int[] puzzle : puzzles)
+            SkyScrapers.solvePuzzle(puzzle, size);
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < TIMING_RUNS; run++) {
+            long start = System.nanoTime();
+            for (int[] puzzle : puzzles)
+                SkyScrapers.solvePuzzle(puzzle, size);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(1, best / 1000);
+    }
+
+    /**
+     * Reads a corpus file
+     */
+    static SkyScrapersCorpus read(Path path) throws IOException {
+        int version = -1;
+        int size = -1;
+        long seed = 0;
+        List<Entry> entries = new ArrayList<>();
+        Map<SkyScrapersDifficulty.Bucket, Long> micros = new EnumMap<>(SkyScrapersDifficulty.Bucket.class);
+
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                String[] fields = line.split(" ");
+                switch (fields[0]) {
+                    case "version":
+                        version = Integer.parseInt(fields[1]);
+                        break;
+                    case "size":
+                        size = Integer.parseInt(fields[1]);
+                        break;
+                    case "seed":
+                        seed = Long.parseLong(fields[1]);
+                        break;
+                    case "puzzle":
+                        int[] clues = SkyScrapersMain.parseClues(fields[3]);
+                        if (clues.length != 4 * size)
+                            throw new IllegalArgumentException("expected " + 4 * size + " clues: " + line);
+                        entries.add(new Entry(bucket(fields[1]), Long.parseLong(fields[2]), clues));
+                        break;
+                    case "time":
+                        micros.put(bucket(fields[1]), Long.parseLong(fields[2]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unexpected line: " + line);
+                }
+            }
+        }
+
+        if (version != VERSION)
+            throw new IllegalArgumentException("unsupported corpus version " + version);
+        return new SkyScrapersCorpus(version, size, seed, entries, micros);
+    }
+
+    /**
+     * Writes the corpus to a file
+     */
+    void write(Path path) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            out.write("# generated by SkyScrapersCorpus, see the class for the format\n");
+            out.write("version " + version + "\n");
+            out.write("size " + size + "\n");
+            out.write("seed " + seed + "\n");
+            for (Entry entry : entries)
+                out.write("puzzle " + name(entry.bucket) + " " + entry.nodes + " "
+                        + SkyScrapersMain.formatBoard(new int[][]{ entry.clues }) + "\n");
+            for (Map.Entry<SkyScrapersDifficulty.Bucket, Long> time : micros.entrySet())
+                out.write("time " + name(time.getKey()) + " " + time.getValue() + "\n");
+        }
+    }
+
+    /**
+     * Returns the name of a corpus file for a board size
+     */
+    static String fileName(int size) {
+        return "corpus-v" + VERSION + "-N" + size + ".txt";
+    }
+
+    public static void main(String[] args) throws IOException {
+        long seed = DEFAULT_SEED;
+        int count = DEFAULT_COUNT;
+        Path directory = null;
+        List<Integer> sizes = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-s"))
+                    seed = Long.parseLong(args[++i]);
+                else if (args[i].equals("-c"))
+                    count = Integer.parseInt(args[++i]);
+                else if (directory == null)
+                    directory = Paths.get(args[i]);
+                else
+                    sizes.add(Integer.parseInt(args[i]));
+            }
+            if (directory == null || count <= 0)
+                throw new IllegalArgumentException();
+        } catch (RuntimeException e) {
+            System.err.println("usage: SkyScrapersCorpus [-s seed] [-c puzzles per bucket] directory [sizes]");
+            System.exit(2);
+            return;
+        }
+        if (sizes.isEmpty())
+            for (int size = 4; size <= 7; size++)
+                sizes.add(size);
+
+        Files.createDirectories(directory);
+        for (int size : sizes) {
+            SkyScrapersCorpus corpus = generate(size, count, seed);
+            corpus.write(directory.resolve(fileName(size)));
+            for (SkyScrapersDifficulty.Bucket bucket : SkyScrapersDifficulty.Bucket.values())
+                System.out.printf("N=%d %-10s puzzles %3d, nodes %6d, time us %8d%n", size, name(bucket),
+                        corpus.getPuzzles(bucket).size(), corpus.getNodes(bucket), corpus.getMicros(bucket));
+        }
+    }
+
+    private static String name(SkyScrapersDifficulty.Bucket bucket) {
+        return bucket.name().toLowerCase();
+    }
+
+    private static SkyScrapersDifficulty.Bucket bucket(String name) {
+        return SkyScrapersDifficulty.Bucket.valueOf(name.toUpperCase());
+    }
+}
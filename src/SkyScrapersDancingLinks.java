@@ -0,0 +1,459 @@
+import java.util.Arrays;
+
+/**
+ * Solving engine using exact cover with colors: Knuth's Algorithm C, an extension of Algorithm X
+ * with dancing links, TAOCP 7.2.2.1.
+ *
+ * It starts from the state of a solver after prepare(), so constraints are propagated and
+ * the Permutations of each line are already filtered. The rest of the puzzle is encoded as:
+ *
+ * Primary items, each covered exactly once:
+ * - a line, a row or column with a clue: covered by one of its Permutations still possible
+ * - a height in a row or column without clues: covered by the cell the height is placed in
+ * - a cell in a row and a column without clues: covered by one of its possible heights
+ *
+ * Secondary items, colored by the height of a cell:
+ * - every cell, so a row Permutation and a column Permutation crossing in a cell agree on its height
+ *
+ * An option is a Permutation of a line, covering the line, its cells, and the heights it places
+ * in crossing rows or columns without clues; or a height of a cell in a row and a column without clues.
+ *
+ * The search takes an item with at most one option left first, then the line with fewest options,
+ * then other items with fewest options. Lines go first as choosing a Permutation decides a whole row or column,
+ * heights of free cells chosen before lines are only checked against clues once the lines are chosen.
+ *
+ * Building the matrix costs time proportional to Permutations left, and unlike {@link SkyScrapersSolver}
+ * the search does not filter lines against heights possible in cells. So it is faster only on puzzles
+ * with few Permutations left after propagation, see {@link SkyScrapers#preferDancingLinks}.
+ *
+ * Engine is not thread safe, it reuses its arrays between puzzles.
+ */
+class SkyScrapersDancingLinks {
+
+    private final int size;
+
+    //doubly linked list of items not covered yet, 0 is the head of primary items,
+    //secondary items are in another list with its head after the last item
+    private int[] llink = new int[0];
+    private int[] rlink = new int[0];
+    //number of options of each item not hidden
+    private int[] len = new int[0];
+
+    //nodes: item headers at indices 1 .. item count, then options separated by spacers.
+    //top is an item of a node, or <= 0 for a spacer.
+    //ulink and dlink link nodes of an item, spacers link the first node of the option before
+    //and the last node of the option after
+    private int[] top = new int[1024];
+    private int[] ulink = new int[1024];
+    private int[] dlink = new int[1024];
+    //color of a node of a secondary item, 0 for primary items, -1 if purified
+    private int[] color = new int[1024];
+    //cell index and height of a node of a secondary item, to read the solution from chosen options
+    private int[] nodeCell = new int[1024];
+    private int[] nodeHeight = new int[1024];
+    private int nodeCount;
+
+    private int lineCount;
+    private int primaryCount;
+    private int itemCount;
+
+    //search stack: item and option chosen at each level
+    private int[] levelItem = new int[0];
+    private int[] levelOption = new int[0];
+
+    //search nodes of the last solve
+    private long searchNodes;
+
+    private final int[][] solution;
+
+    SkyScrapersDancingLinks(int size) {
+        this.size = size;
+        this.solution = new int[size][size];
+    }
+
+    /**
+     * Solves the puzzle a solver has prepared
+     * @param solver - solver after a successful prepare()
+     * @return Returns true if the puzzle was solved, the solution is available via copyBoard()
+     */
+    boolean solve(SkyScrapersSolver solver) {
+        if (solver.getSize() != size)
+            throw new IllegalArgumentException();
+
+        build(solver);
+        return search();
+    }
+
+    /**
+     * Returns number of search nodes of the last solve
+     */
+    long getNodes() {
+        return searchNodes;
+    }
+
+    /**
+     * Copies the last solution into a given array
+     * @param out - array N x N
+     */
+    void copyBoard(int[][] out) {
+        for (int row = 0; row < size; row++)
+            System.arraycopy(solution[row], 0, out[row], 0, size);
+    }
+
+    /*
+    Builds items and options for the state of the solver
+     */
+    private void build(SkyScrapersSolver solver) {
+        Board board = solver.getBoard();
+        lineCount = solver.getLineCount();
+
+        //number primary items: lines, heights of rows and columns without clues, cells of neither
+        int[] rowHeightItem = new int[size];
+        int[] colHeightItem = new int[size];
+        int[] cellItem = new int[size * size];
+        primaryCount = lineCount;
+        for (int i = 0; i < size; i++) {
+            rowHeightItem[i] = solver.getRowLine(i) < 0 ? primaryCount + 1 : 0;
+            if (rowHeightItem[i] != 0)
+                primaryCount += size;
+        }
+        for (int i = 0; i < size; i++) {
+            colHeightItem[i] = solver.getColLine(i) < 0 ? primaryCount + 1 : 0;
+            if (colHeightItem[i] != 0)
+                primaryCount += size;
+        }
+        for (int index = 0; index < size * size; index++) {
+            if (rowHeightItem[index / size] != 0 && colHeightItem[index % size] != 0)
+                cellItem[index] = ++primaryCount;
+
+        }
+        //secondary item of a cell is firstCell + index
+        int firstCell = primaryCount + 1;
+        itemCount = primaryCount + size * size;
+
+        initializeItems();
+
+        int spacer = addSpacer(0, 0);
+        int option = 0;
+        for (int line = 0; line < lineCount; line++) {
+            int[] cells = solver.getLineCells(line);
+            boolean row = solver.isRowLine(line);
+
+            for (int i = 0; i < solver.getLineSize(line); i++) {
+                int permutation = solver.getLineCandidate(line, i);
+                int k = 0;
+                while (k < size
+                        && (board.getCandidates(cells[k]) & Board.bit(solver.getLineHeight(line, permutation, k))) != 0)
+                    k++;
+                if (k < size)
+                    continue;
+
+                int first = nodeCount;
+                addNode(line + 1, 0, -1);
+                for (k = 0; k < size; k++) {
+                    int cell = cells[k];
+                    int height = solver.getLineHeight(line, permutation, k);
+                    addNode(firstCell + cell, height, cell);
+                    //height placed in a crossing row or column without clues
+                    int crossing = row ? colHeightItem[cell % size] : rowHeightItem[cell / size];
+                    if (crossing != 0)
+                        addNode(crossing + height - 1, 0, -1);
+
+                }
+                spacer = addSpacer(spacer, first);
+                top[spacer] = -(++option);
+            }
+        }
+
+        for (int index = 0; index < size * size; index++) {
+            if (cellItem[index] == 0)
+                continue;
+
+            int candidates = board.getCandidates(index);
+            for (int height = 1; height <= size; height++) {
+                if ((candidates & Board.bit(height)) == 0)
+                    continue;
+
+                int first = nodeCount;
+                addNode(cellItem[index], 0, -1);
+                addNode(rowHeightItem[index / size] + height - 1, 0, -1);
+                addNode(colHeightItem[index % size] + height - 1, 0, -1);
+                addNode(firstCell + index, height, index);
+                spacer = addSpacer(spacer, first);
+                top[spacer] = -(++option);
+            }
+        }
+    }
+
+    /*
+    Links items into their lists and makes empty item headers
+     */
+    private void initializeItems() {
+        if (llink.length < itemCount + 2) {
+            llink = new int[itemCount + 2];
+            rlink = new int[itemCount + 2];
+            len = new int[itemCount + 2];
+            levelItem = new int[itemCount + 1];
+            levelOption = new int[itemCount + 1];
+        }
+
+        int secondaryHead = itemCount + 1;
+        for (int item = 0; item <= itemCount + 1; item++) {
+            llink[item] = item - 1;
+            rlink[item] = item + 1;
+            len[item] = 0;
+        }
+        //primary list 0 .. primaryCount, secondary list primaryCount + 1 .. itemCount + 1
+        llink[0] = primaryCount;
+        rlink[primaryCount] = 0;
+        llink[primaryCount + 1] = secondaryHead;
+        rlink[secondaryHead] = primaryCount + 1;
+        llink[secondaryHead] = itemCount;
+        rlink[itemCount] = secondaryHead;
+
+        nodeCount = itemCount + 1;
+        ensureNodes(nodeCount);
+        for (int item = 1; item <= itemCount; item++) {
+            top[item] = 0;
+            ulink[item] = item;
+            dlink[item] = item;
+        }
+    }
+
+    /*
+    Appends a node of an item to the option being built
+     */
+    private void addNode(int item, int height, int cell) {
+        ensureNodes(nodeCount + 1);
+        int node = nodeCount++;
+        top[node] = item;
+        color[node] = height;
+        nodeCell[node] = cell;
+        nodeHeight[node] = height;
+
+        int last = ulink[item];
+        ulink[node] = last;
+        dlink[node] = item;
+        dlink[last] = node;
+        ulink[item] = node;
+        len[item]++;
+    }
+
+    /*
+    Ends an option started at node first, returns the new spacer
+     */
+    private int addSpacer(int previous, int first) {
+        ensureNodes(nodeCount + 1);
+        int spacer = nodeCount++;
+        top[spacer] = 0;
+        color[spacer] = 0;
+        nodeCell[spacer] = -1;
+        ulink[spacer] = first;
+        dlink[spacer] = spacer;
+        if (previous != 0)
+            dlink[previous] = spacer - 1;
+        return spacer;
+    }
+
+    private void ensureNodes(int count) {
+        if (count <= top.length)
+            return;
+
+        int length = Math.max(count, 2 * top.length);
+        top = Arrays.copyOf(top, length);
+        ulink = Arrays.copyOf(ulink, length);
+        dlink = Arrays.copyOf(dlink, length);
+        color = Arrays.copyOf(color, length);
+        nodeCell = Arrays.copyOf(nodeCell, length);
+        nodeHeight = Arrays.copyOf(nodeHeight, length);
+    }
+
+    /*
+    Algorithm C, stops at the first solution
+     */
+    private boolean search() {
+        searchNodes = 0;
+        int level = 0;
+        boolean advance = true;
+        while (true) {
+            if (advance) {
+                if (rlink[0] == 0) {
+                    readSolution(level);
+                    return true;
+                }
+
+                searchNodes++;
+                int item = chooseItem();
+                cover(item);
+                levelItem[level] = item;
+                levelOption[level] = dlink[item];
+            } else {
+                //try the next option of the item
+                int option = levelOption[level];
+                for (int p = option - 1; p != option; ) {
+                    int item = top[p];
+                    if (item <= 0) {
+                        p = dlink[p];
+                    } else {
+                        uncommit(p, item);
+                        p--;
+                    }
+                }
+                levelOption[level] = dlink[option];
+            }
+
+            int option = levelOption[level];
+            if (option == levelItem[level]) {
+                //no options left
+                uncover(levelItem[level]);
+                if (level == 0)
+                    return false;
+                level--;
+                advance = false;
+                continue;
+            }
+
+            for (int p = option + 1; p != option; ) {
+                int item = top[p];
+                if (item <= 0) {
+                    p = ulink[p];
+                } else {
+                    commit(p, item);
+                    p++;
+                }
+            }
+            level++;
+            advance = true;
+        }
+    }
+
+    /*
+    Returns a primary item with at most one option, or the line with fewest options,
+    or the other primary item with fewest options
+     */
+    private int chooseItem() {
+        int bestLine = 0;
+        int bestOther = 0;
+        for (int item = rlink[0]; item != 0; item = rlink[item]) {
+            if (len[item] <= 1)
+                return item;
+            if (item <= lineCount) {
+                if (bestLine == 0 || len[item] < len[bestLine])
+                    bestLine = item;
+            } else if (bestOther == 0 || len[item] < len[bestOther])
+                bestOther = item;
+        }
+        return bestLine != 0 ? bestLine : bestOther;
+    }
+
+    /*
+    Fills the solution from options chosen at levels below a given one
+     */
+    private void readSolution(int levels) {
+        for (int level = 0; level < levels; level++) {
+            //go back to the first node of the option
+            int first = levelOption[level];
+            while (top[first - 1] > 0)
+                first--;
+            for (int p = first; top[p] > 0; p++)
+                if (nodeCell[p] >= 0)
+                    solution[nodeCell[p] / size][nodeCell[p] % size] = nodeHeight[p];
+        }
+    }
+
+    private void cover(int item) {
+        for (int p = dlink[item]; p != item; p = dlink[p])
+            hide(p);
+        int l = llink[item];
+        int r = rlink[item];
+        rlink[l] = r;
+        llink[r] = l;
+    }
+
+    private void uncover(int item) {
+        int l = llink[item];
+        int r = rlink[item];
+        rlink[l] = item;
+        llink[r] = item;
+        for (int p = ulink[item]; p != item; p = ulink[p])
+            unhide(p);
+    }
+
+    /*
+    Removes other nodes of the option of node p from their items
+     */
+    private void hide(int p) {
+        for (int q = p + 1; q != p; ) {
+            int item = top[q];
+            if (item <= 0) {
+                q = ulink[q];
+            } else {
+                if (color[q] >= 0) {
+                    int u = ulink[q];
+                    int d = dlink[q];
+                    dlink[u] = d;
+                    ulink[d] = u;
+                    len[item]--;
+                }
+                q++;
+            }
+        }
+    }
+
+    private void unhide(int p) {
+        for (int q = p - 1; q != p; ) {
+            int item = top[q];
+            if (item <= 0) {
+                q = dlink[q];
+            } else {
+                if (color[q] >= 0) {
+                    int u = ulink[q];
+                    int d = dlink[q];
+                    dlink[u] = q;
+                    ulink[d] = q;
+                    len[item]++;
+                }
+                q--;
+            }
+        }
+    }
+
+    private void commit(int p, int item) {
+        if (color[p] == 0)
+            cover(item);
+        else if (color[p] > 0)
+            purify(p);
+    }
+
+    private void uncommit(int p, int item) {
+        if (color[p] == 0)
+            uncover(item);
+        else if (color[p] > 0)
+            unpurify(p);
+    }
+
+    /*
+    Keeps only options agreeing with the color of node p in its secondary item
+     */
+    private void purify(int p) {
+        int c = color[p];
+        int item = top[p];
+        for (int q = dlink[item]; q != item; q = dlink[q]) {
+            if (color[q] != c)
+                hide(q);
+            else if (q != p)
+                color[q] = -1;
+        }
+    }
+
+    private void unpurify(int p) {
+        int c = color[p];
+        int item = top[p];
+        for (int q = ulink[item]; q != item; q = ulink[q]) {
+            if (color[q] < 0)
+                color[q] = c;
+            else if (q != p)
+                unhide(q);
+        }
+    }
+}
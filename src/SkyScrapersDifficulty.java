@@ -0,0 +1,104 @@
+/**
+ * Difficulty of a puzzle, rated by the search effort the solver needs for it.
+ *
+ * The score is the number of search nodes, see {@link SolveStats}, so unlike solve time
+ * it is the same on every machine and only changes when the solver does.
+ * Puzzles are sorted into buckets by the score:
+ * TRIVIAL puzzles are solved by propagating clues alone, without a search,
+ * MEDIUM puzzles need at most mediumMaxNodes(N) search nodes, HARD puzzles more.
+ * Puzzles without a solution are UNSOLVABLE whatever their score.
+ *
+ * The limit for each size is the 75th percentile of search nodes of puzzles that need a search,
+ * so about a quarter of them are HARD. It was measured on puzzles of {@link SkyScrapersGenerator}
+ * from seed 2026, 600 puzzles for N = 4 to 6 and 300 for N = 7:
+ *   N = 4: 47 puzzles need a search, 75th percentile 2 nodes
+ *   N = 5: 217 puzzles, 3 nodes
+ *   N = 6: 405 puzzles, 6 nodes
+ *   N = 7: 264 puzzles, 14 nodes
+ * Smaller boards take the limit of N = 4. Generating larger boards takes too long to measure,
+ * their limits continue doubling with each size.
+ */
+public class SkyScrapersDifficulty {
+
+    public enum Bucket {
+        TRIVIAL,
+        MEDIUM,
+        HARD,
+        UNSOLVABLE
+    }
+
+    //puzzles needing at most this many search nodes are MEDIUM, for each board size
+    private static final long[] MEDIUM_MAX_NODES = { 2, 2, 2, 2, 2, 3, 6, 14, 28, 56 };
+
+    private final Bucket bucket;
+    private final long nodes;
+    private final long backtracks;
+    private final long propagationRounds;
+
+    SkyScrapersDifficulty(Bucket bucket, long nodes, long backtracks, long propagationRounds) {
+        this.bucket = bucket;
+        this.nodes = nodes;
+        this.backtracks = backtracks;
+        this.propagationRounds = propagationRounds;
+    }
+
+    /**
+     * Solves a puzzle and rates its difficulty
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @return Returns difficulty of the puzzle
+     */
+    public static SkyScrapersDifficulty rate(int[] clues, int size) {
+        SolveStats stats = new SolveStats();
+        boolean solved = SkyScrapers.solvePuzzle(clues, size, stats) != null;
+
+        Bucket bucket;
+        if (!solved)
+            bucket = Bucket.UNSOLVABLE;
+        else if (stats.getNodes() == 0)
+            bucket = Bucket.TRIVIAL;
+        else if (stats.getNodes() <= mediumMaxNodes(size))
+            bucket = Bucket.MEDIUM;
+        else
+            bucket = Bucket.HARD;
+        return new SkyScrapersDifficulty(bucket, stats.getNodes(), stats.getBacktracks(), stats.getPropagationRounds());
+    }
+
+    /**
+     * Returns the most search nodes a MEDIUM puzzle of a board size needs
+     * @param size - board size N, from 1 to 9
+     */
+    static long mediumMaxNodes(int size) {
+        return MEDIUM_MAX_NODES[size];
+    }
+
+    public Bucket getBucket() {
+        return bucket;
+    }
+
+    /**
+     * Returns the score of the puzzle, number of search nodes needed to solve it
+     * or to find it has no solution
+     */
+    public long getScore() {
+        return nodes;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getPropagationRounds() {
+        return propagationRounds;
+    }
+
+    @Override
+    public String toString() {
+        return "SkyScrapersDifficulty{" +
+                "bucket=" + bucket +
+                ", score=" + nodes +
+                ", backtracks=" + backtracks +
+                ", propagationRounds=" + propagationRounds +
+                '}';
+    }
+}
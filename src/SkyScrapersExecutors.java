@@ -0,0 +1,57 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools and futures shared by solvers working on several threads
+ */
+final class SkyScrapersExecutors {
+
+    private SkyScrapersExecutors() {
+    }
+
+    /**
+     * Creates a fixed pool of daemon threads, so a pool left running does not keep the JVM alive
+     * @param name - prefix of thread names, threads are numbered from 1
+     * @param threads - number of threads
+     */
+    static ExecutorService newDaemonPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, new DaemonThreadFactory(name));
+    }
+
+    /*
+    Creates numbered daemon threads.
+    A class rather than a lambda, SkyScrapersMain uses it on its startup path and avoids lambdas there.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Waits for a future, rethrows exceptions thrown by a worker thread
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Generates puzzles with exactly one solution.
+ *
+ * A puzzle starts from a random Latin square and all 4 * N clues of it, see {@link ClueWithCellIndices}.
+ * Clues are then removed one by one in random order, a clue stays if the puzzle has another solution without it.
+ * So no clue of a generated puzzle can be removed without losing its uniqueness.
+ *
+ * Each puzzle is determined by its seed, so puzzles can be generated again on any number of threads.
+ *
+ * Boards go up to MAX_SIZE: a larger random Latin square almost never has a unique solution even with all
+ * of its clues, so the search for a starting square would not end.
+ *
+ * Instances are not thread safe, generateAll() gives each thread its own generator.
+ */
+public class SkyScrapersGenerator {
+
+    //largest board size a puzzle can be generated for
+    static final int MAX_SIZE = 7;
+
+    //puzzles generated by one task of generateAll()
+    private static final int CHUNK_SIZE = 64;
+
+    private final int size;
+    private final SkyScrapersSolver solver;
+    private final int[][] square;
+    private final int[] order;
+    private final ClueWithCellIndices[] clueCells;
+
+    //clues of other solutions found while removing clues of the current puzzle
+    private int[][] witnesses = new int[16][];
+    private int witnessCount;
+    private final int[][] witnessBoard;
+
+    /**
+     * @param size - board size N, from 1 to MAX_SIZE
+     */
+    public SkyScrapersGenerator(int size) {
+        if (size <= 0 || size > MAX_SIZE)
+            throw new IllegalArgumentException("cannot generate puzzles of size " + size + ", the limit is " + MAX_SIZE);
+
+        this.size = size;
+        this.solver = new SkyScrapersSolver(SkyScrapers.getPermutations(size));
+        this.square = new int[size][size];
+        this.order = new int[4 * size];
+        this.witnessBoard = new int[size][size];
+        this.clueCells = new ClueWithCellIndices[4 * size];
+        for (int position = 0; position < 4 * size; position++)
+            clueCells[position] = new ClueWithCellIndices(0, position, size);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Generates a puzzle with exactly one solution
+     * @param seed - seed of random choices, the same seed gives the same puzzle
+     * @return Returns an array of 4 * N clues, 0 where a clue was removed
+     */
+    public int[] generate(long seed) {
+        Random random = new Random(seed);
+        int[] clues = new int[4 * size];
+        //all clues of some Latin squares fit other Latin squares too, such squares are skipped
+        do {
+            fillLatinSquare(random);
+            for (int position = 0; position < 4 * size; position++)
+                clues[position] = clueCells[position].countVisible(square);
+        } while (solver.countSolutions(clues, 2) != 1);
+
+        for (int position = 0; position < 4 * size; position++)
+            order[position] = position;
+        shuffle(order, random);
+
+        witnessCount = 0;
+        for (int position : order) {
+            if (!hasWitness(clues, position) && !findWitness(clues, position))
+                clues[position] = 0;
+        }
+        return clues;
+    }
+
+    /*
+    Returns true if a solution found before fits all clues but the one at given position.
+    Clues are only removed, so such a solution stays a second solution once the clue is removed.
+     */
+    private boolean hasWitness(int[] clues, int position) {
+        for (int w = 0; w < witnessCount; w++) {
+            int[] witness = witnesses[w];
+            int p = 0;
+            while (p < 4 * size && (p == position || clues[p] == 0 || clues[p] == witness[p]))
+                p++;
+            if (p == 4 * size)
+                return true;
+        }
+        return false;
+    }
+
+    /*
+    Looks for a solution with another clue at given position, keeps it as a witness if found.
+    The puzzle with all clues has a single solution, so without the clue at the position
+    any other solution has a different clue there.
+    Returns true if the clue cannot be removed.
+     */
+    private boolean findWitness(int[] clues, int position) {
+        int clue = clues[position];
+        for (int other = 1; other <= size; other++) {
+            if (other == clue)
+                continue;
+
+            clues[position] = other;
+            boolean solved = solver.solve(clues);
+            clues[position] = clue;
+            if (solved) {
+                if (witnessCount == witnesses.length)
+                    witnesses = Arrays.copyOf(witnesses, 2 * witnessCount);
+                if (witnesses[witnessCount] == null)
+                    witnesses[witnessCount] = new int[4 * size];
+                solver.copyBoard(witnessBoard);
+                for (int p = 0; p < 4 * size; p++)
+                    witnesses[witnessCount][p] = clueCells[p].countVisible(witnessBoard);
+                witnessCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the solution of the last generated puzzle
+     * @return Returns a board N x N
+     */
+    public int[][] getSolution() {
+        int[][] result = new int[size][];
+        for (int row = 0; row < size; row++)
+            result[row] = square[row].clone();
+        return result;
+    }
+
+    /**
+     * Generates puzzles on a pool of threads.
+     * Puzzle i is generated from a seed mixed from the given seed and i,
+     * so the result does not depend on the number of threads.
+     * @param size - board size N, from 1 to MAX_SIZE
+     * @param count - number of puzzles
+     * @param seed - seed of all puzzles
+     * @param threads - number of threads
+     * @return Returns a list of puzzles, each an array of 4 * N clues
+     */
+    public static List<int[]> generateAll(final int size, int count, final long seed, int threads) {
+        if (size <= 0 || size > MAX_SIZE)
+            throw new IllegalArgumentException("cannot generate puzzles of size " + size + ", the limit is " + MAX_SIZE);
+        if (count < 0 || threads <= 0)
+            throw new IllegalArgumentException();
+
+        ExecutorService executor = SkyScrapersExecutors.newDaemonPool("skyscrapers-generator", threads);
+
+        try {
+            List<CompletableFuture<int[][]>> chunks = new ArrayList<>();
+            for (int first = 0; first < count; first += CHUNK_SIZE) {
+                final int chunkFirst = first;
+                final int chunkSize = Math.min(CHUNK_SIZE, count - first);
+                chunks.add(CompletableFuture.supplyAsync(() -> {
+                    SkyScrapersGenerator generator = new SkyScrapersGenerator(size);
+                    int[][] puzzles = new int[chunkSize][];
+                    for (int i = 0; i < chunkSize; i++)
+                        puzzles[i] = generator.generate(puzzleSeed(seed, chunkFirst + i));
+                    return puzzles;
+                }, executor));
+            }
+
+            List<int[]> result = new ArrayList<>(count);
+            for (CompletableFuture<int[][]> chunk : chunks)
+                for (int[] puzzle : SkyScrapersExecutors.join(chunk))
+                    result.add(puzzle);
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the seed of i-th puzzle of generateAll(), for generating it again with generate()
+     */
+    public static long puzzleSeed(long seed, int i) {
+        //SplitMix64 finalizer, so close seeds give unrelated puzzles
+        long z = seed + (i + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*
+    Fills the square with a random Latin square row by row.
+    Each row is a random permutation avoiding heights used in its columns, found by backtracking;
+    a Latin rectangle can always be extended by a row, so it is always found.
+     */
+    private void fillLatinSquare(Random random) {
+        int[] colUsed = new int[size];
+        for (int row = 0; row < size; row++) {
+            fillRow(row, 0, 0, colUsed, random);
+            for (int col = 0; col < size; col++)
+                colUsed[col] |= Board.bit(square[row][col]);
+        }
+    }
+
+    /*
+    Recursive method.
+    Puts a height not used in the row or the column at given column, in random order.
+    Returns false if the rest of the row cannot be filled.
+     */
+    private boolean fillRow(int row, int col, int rowUsed, int[] colUsed, Random random) {
+        if (col == size)
+            return true;
+
+        int free = Board.fullMask(size) & ~rowUsed & ~colUsed[col];
+        int[] heights = new int[Integer.bitCount(free)];
+        for (int height = 1, count = 0; height <= size; height++)
+            if ((free & Board.bit(height)) != 0)
+                heights[count++] = height;
+        shuffle(heights, random);
+
+        for (int height : heights) {
+            square[row][col] = height;
+            if (fillRow(row, col + 1, rowUsed | Board.bit(height), colUsed, random))
+                return true;
+        }
+        return false;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[k];
+            values[k] = value;
+        }
+    }
+}
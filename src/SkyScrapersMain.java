@@ -0,0 +1,254 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Command line bulk solver.
+ *
+ * Usage: java SkyScrapersMain [-t threads] [-n size] [file]
+ *
+ * Reads puzzles from a file, or from standard input if no file is given, one puzzle per line:
+ * 4 * N clues separated by commas or spaces, see {@link ClueWithCellIndices}.
+ * Board size N is the number of clues / 4 unless given with -n. Empty lines and lines starting with # are skipped.
+ *
+ * Writes one line per puzzle to standard output, in input order:
+ * N * N heights of the solution row by row separated by commas, "none" if the puzzle has no solution,
+ * or "error: ..." if the line is not a valid puzzle.
+ * On exit writes number of puzzles, puzzles per second and percentiles of solve time to standard error.
+ *
+ * Puzzles are solved on a pool of threads, one per processor by default.
+ * At most IN_FLIGHT_PER_THREAD puzzles per thread are read ahead of the output,
+ * so memory does not grow with the input when output is slow.
+ *
+ * Short runs spend much of their time starting the JVM. A class data sharing archive helps (JDK 13+):
+ *   java -XX:ArchiveClassesAtExit=skyscrapers.jsa -cp out SkyScrapersMain puzzles.txt
+ *   java -XX:SharedArchiveFile=skyscrapers.jsa -cp out SkyScrapersMain puzzles.txt
+ * Main itself avoids lambdas and streams, which are slow to bootstrap on first use;
+ * lambda classes of the solver are archived too since JDK 16.
+ */
+public class SkyScrapersMain {
+
+    //puzzles per thread read ahead of the output
+    private static final int IN_FLIGHT_PER_THREAD = 64;
+
+    /*
+    Solution of one puzzle and the time it took
+     */
+    private static class Result {
+        private final String line;
+        private final long nanos;
+
+        Result(String line, long nanos) {
+            this.line = line;
+            this.nanos = nanos;
+        }
+    }
+
+    /*
+    Solve times of all puzzles
+     */
+    private static class Latencies {
+        private long[] nanos = new long[1024];
+        private int count;
+        private boolean sorted;
+
+        void add(long value) {
+            if (count == nanos.length)
+                nanos = Arrays.copyOf(nanos, 2 * count);
+            nanos[count++] = value;
+            sorted = false;
+        }
+
+        double percentileMicros(double fraction) {
+            if (count == 0)
+                return 0;
+            if (!sorted) {
+                Arrays.sort(nanos, 0, count);
+                sorted = true;
+            }
+            int index = Math.max(0, (int) Math.ceil(fraction * count) - 1);
+            return nanos[index] / 1e3;
+        }
+    }
+
+    /*
+    Solves one input line
+     */
+    private static class SolveTask implements Callable<Result> {
+        private final String line;
+        private final int size;
+
+        SolveTask(String line, int size) {
+            this.line = line;
+            this.size = size;
+        }
+
+        @Override
+        public Result call() {
+            long start = System.nanoTime();
+            String output;
+            try {
+                int[] clues = parseClues(line);
+                int puzzleSize = size > 0 ? size : clues.length / 4;
+                if (clues.length != 4 * puzzleSize || puzzleSize == 0)
+                    throw new IllegalArgumentException("expected 4 * N clues, got " + clues.length);
+                if (puzzleSize > SkyScrapers.MAX_SIZE)
+                    throw new IllegalArgumentException("board size " + puzzleSize + " is not supported");
+                for (int clue : clues)
+                    if (clue < 0 || clue > puzzleSize)
+                        throw new IllegalArgumentException("clue " + clue + " is out of range");
+
+                output = formatBoard(SkyScrapers.solvePuzzle(clues, puzzleSize));
+            } catch (IllegalArgumentException e) {
+                output = "error: " + e.getMessage();
+            }
+            return new Result(output, System.nanoTime() - start);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * Runs the solver with command line arguments
+     * @return Returns exit code: 0 on success, 2 on wrong arguments
+     */
+    static int run(String[] args, InputStream stdin, OutputStream stdout, PrintStream stderr)
+            throws IOException, InterruptedException {
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        int size = 0;
+        String file = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-t"))
+                    threads = Integer.parseInt(args[++i]);
+                else if (args[i].equals("-n"))
+                    size = Integer.parseInt(args[++i]);
+                else if (file == null && !args[i].startsWith("-"))
+                    file = args[i];
+                else
+                    throw new IllegalArgumentException(args[i]);
+            }
+            if (threads <= 0 || size < 0 || size > SkyScrapers.MAX_SIZE)
+                throw new IllegalArgumentException();
+        } catch (RuntimeException e) {
+            stderr.println("usage: SkyScrapersMain [-t threads] [-n size] [file]");
+            return 2;
+        }
+
+        ExecutorService executor = SkyScrapersExecutors.newDaemonPool("skyscrapers-main", threads);
+
+        Latencies latencies = new Latencies();
+        long start = System.nanoTime();
+        try (BufferedReader in = file != null
+                ? Files.newBufferedReader(Paths.get(file), StandardCharsets.US_ASCII)
+                : new BufferedReader(new InputStreamReader(stdin, StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(stdout, StandardCharsets.US_ASCII), 1 << 16)) {
+
+            int maxInFlight = threads * IN_FLIGHT_PER_THREAD;
+            ArrayDeque<Future<Result>> pending = new ArrayDeque<>(maxInFlight);
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                pending.add(executor.submit(new SolveTask(line, size)));
+
+                //write finished results, wait for the oldest one if too many are in flight
+                while (!pending.isEmpty() && (pending.size() >= maxInFlight || pending.peek().isDone()))
+                    write(get(pending.poll()), out, latencies);
+            }
+
+            while (!pending.isEmpty())
+                write(get(pending.poll()), out, latencies);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        stderr.printf("puzzles: %d, puzzles/s: %.1f, solve time us: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                latencies.count, latencies.count * 1e9 / Math.max(elapsed, 1),
+                latencies.percentileMicros(0.5), latencies.percentileMicros(0.9), latencies.percentileMicros(0.99),
+                latencies.percentileMicros(0.999), latencies.percentileMicros(1));
+        return 0;
+    }
+
+    /*
+    Parses integers separated by commas or white space
+     */
+    static int[] parseClues(String line) {
+        int[] clues = new int[4 * SkyScrapers.MAX_SIZE];
+        int count = 0;
+        int value = -1;
+        for (int i = 0; i <= line.length(); i++) {
+            char c = i < line.length() ? line.charAt(i) : ' ';
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > SkyScrapers.MAX_SIZE)
+                    throw new IllegalArgumentException("clue " + value + " is out of range");
+            } else if (c == ',' || Character.isWhitespace(c)) {
+                if (value >= 0) {
+                    if (count == clues.length)
+                        throw new IllegalArgumentException("too many clues");
+                    clues[count++] = value;
+                    value = -1;
+                }
+            } else {
+                throw new IllegalArgumentException("unexpected character '" + c + "'");
+            }
+        }
+        return Arrays.copyOf(clues, count);
+    }
+
+    /*
+    Returns heights row by row separated by commas, "none" if there is no board
+     */
+    static String formatBoard(int[][] board) {
+        if (board == null)
+            return "none";
+
+        StringBuilder builder = new StringBuilder(2 * board.length * board.length);
+        for (int[] row : board) {
+            for (int height : row) {
+                if (builder.length() > 0)
+                    builder.append(',');
+                builder.append(height);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void write(Result result, Writer out, Latencies latencies) throws IOException {
+        out.write(result.line);
+        out.write('\n');
+        latencies.add(result.nanos);
+    }
+
+    private static Result get(Future<Result> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves a single puzzle on several cores.
+ *
+ * Top levels of the search tree are split into fork-join tasks.
+ * A task searches a range of Permutations still possible for the most constrained clue,
+ * one by one from its own copy of the solver state.
+ * Ranges are split lazily: a task forks half of its range only while few tasks wait in the queue,
+ * and a Permutation is split further on the next clue only while threads are idle,
+ * so copies of the solver state are made only when another thread can take the work.
+ * Idle threads steal tasks from busy ones.
+ * The first solution found cancels all remaining tasks.
+ *
+ * Instances are thread safe, several puzzles can be solved at once.
+ * Call shutdown() when the solver is no longer needed.
+ */
+public class SkyScrapersParallelSolver {
+
+    //tasks are split on this many levels of the search tree, deeper levels are searched sequentially
+    private static final int SPLIT_DEPTH = 3;
+    //a task stops forking halves of its range once this many tasks wait in its queue
+    private static final int MAX_SURPLUS_TASKS = 2;
+    //tasks per thread a puzzle may be split into
+    private static final int MAX_TASKS_PER_THREAD = 16;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism - number of threads to solve a puzzle with
+     */
+    public SkyScrapersParallelSolver(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException();
+
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Given a clues array solves a puzzle and returns board NxN of skyscrapers heights
+     * @param clues - array of 4 * N clues for each column and row in a NxN board, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @return Returns a board NxN of skyscrapers heights that matches given clues.
+     *          Returns null if the puzzle could not be solved.
+     */
+    public int[][] solvePuzzle(int[] clues, int size) {
+        return solvePuzzle(clues, size, new AtomicBoolean());
+    }
+
+    /**
+     * Solves a puzzle like solvePuzzle(clues, size), gives up with null once a cancellation flag is set
+     * @param cancelled - cancellation flag, it is also set when a solution is found to stop remaining tasks
+     */
+    int[][] solvePuzzle(int[] clues, int size, AtomicBoolean cancelled) {
+
+        SkyScrapers.checkPuzzle(clues, size);
+
+        //tasks only copy the root state, so the calling thread's solver can hold it
+        SkyScrapersSolver root = SkyScrapers.getSolver(size);
+        if (!root.prepare(clues))
+            return null; //could not solve the puzzle
+
+        Search search = new Search(cancelled, MAX_TASKS_PER_THREAD * pool.getParallelism());
+        int line = root.selectLine();
+        if (line < 0 || pool.getParallelism() == 1) {
+            //nothing to split or nobody to split for
+            root.setCancellation(cancelled);
+            try {
+                if (root.search())
+                    search.publish(root);
+            } finally {
+                root.setCancellation(null);
+            }
+        } else {
+            pool.invoke(new SolveTask(root, line, 0, root.getLineSize(line), 0, search));
+        }
+        return search.result.get();
+    }
+
+    /**
+     * Stops worker threads, puzzles being solved are finished first
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /*
+    State shared by all tasks solving one puzzle
+     */
+    private static class Search {
+
+        private final AtomicBoolean cancelled;
+        private final AtomicReference<int[][]> result = new AtomicReference<>();
+        //tasks that may still be created
+        private final AtomicInteger tasksLeft;
+
+        Search(AtomicBoolean cancelled, int maxTasks) {
+            this.cancelled = cancelled;
+            this.tasksLeft = new AtomicInteger(maxTasks);
+        }
+
+        boolean isDone() {
+            return cancelled.get();
+        }
+
+        /*
+        Returns true if one more task may be created
+         */
+        boolean takeTask() {
+            return tasksLeft.getAndDecrement() > 0;
+        }
+
+        void publish(SkyScrapersSolver solver) {
+            int size = solver.getSize();
+            int[][] board = new int[size][size];
+            solver.copyBoard(board);
+            if (result.compareAndSet(null, board))
+                cancelled.set(true);
+        }
+    }
+
+    /*
+    Searches for a solution with each of a range of Permutations of a line.
+    The state the range starts from is shared by tasks and never changed,
+    each task searches from its own copy.
+     */
+    private static class SolveTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SkyScrapersSolver state;
+        private final int line;
+        private final int from;
+        private int to;
+        private final int depth;
+        private final Search search;
+
+        /*
+        Searches with Permutations of a line at indices from .. to - 1 of getLineCandidate() in the state
+         */
+        SolveTask(SkyScrapersSolver state, int line, int from, int to, int depth, Search search) {
+            this.state = state;
+            this.line = line;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.search = search;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.isDone())
+                return; //another task has found a solution
+
+            List<SolveTask> halves = new ArrayList<>();
+            while (to - from > 1 && getSurplusQueuedTaskCount() < MAX_SURPLUS_TASKS && search.takeTask()) {
+                int middle = (from + to) >>> 1;
+                SolveTask half = new SolveTask(state, line, middle, to, depth, search);
+                half.fork();
+                halves.add(half);
+                to = middle;
+            }
+
+            SkyScrapersSolver solver = new SkyScrapersSolver(state);
+            solver.setCancellation(search.cancelled);
+            int boardMark = solver.getTrailMark();
+            int lineMark = solver.getLineTrailMark();
+            for (int i = from; i < to && !search.isDone(); i++) {
+                if (solver.choosePermutation(line, state.getLineCandidate(line, i))) {
+                    int next = solver.selectLine();
+                    if (next >= 0 && depth + 1 < SPLIT_DEPTH && getSurplusQueuedTaskCount() <= 0 && search.takeTask()) {
+                        //threads are idle, split the rest of the search on the next line
+                        new SolveTask(new SkyScrapersSolver(solver), next, 0, solver.getLineSize(next), depth + 1, search)
+                                .invoke();
+                    } else if (solver.search()) {
+                        search.publish(solver);
+                    }
+                }
+                solver.undoTo(boardMark, lineMark);
+            }
+
+            for (SolveTask half : halves)
+                half.join();
+        }
+    }
+}
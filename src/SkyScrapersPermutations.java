@@ -1,7 +1,5 @@
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * <p>Created on 2017-10-25</p>
@@ -22,34 +20,75 @@ public class SkyScrapersPermutations {
 
     private final int maxHeight; //1 - 10
 
-    //key -> clue
-    //value -> list of all combinations of block heights for this clue
-    private final Map<Integer, List<List<Integer>>> cluePermutationList = new TreeMap<>();
+    //index -> clue, index 0 is not used, null until permutations for the clue are first needed
+    //value -> all permutations of block heights for this clue, one after another, maxHeight bytes each,
+    //         grouped by clue from the back, in lexicographic order within a group
+    private final ClueTable[] clueTables;
+
+    //[clue][back clue] -> index of the first permutation for this clue with given clue from the back
+    //[clue][maxHeight + 1] -> number of permutations for this clue
+    private final int[][] cluePairStart;
+
+    //tables for counting visible skyscrapers
+    private final SkyScrapersVisibility visibility;
+
+    //permutations for one clue, its final fields make array contents visible to threads reading clueTables without a lock
+    private static final class ClueTable {
+        private final byte[] heights;
+        //the same permutations column by column, a bit per permutation:
+        //bit i of words (position * maxHeight + height - 1) * words .. + words - 1 is set
+        //if permutation i has given height at given position
+        private final long[] columns;
+        private final int words;
+
+        ClueTable(byte[] heights, long[] columns, int words) {
+            this.heights = heights;
+            this.columns = columns;
+            this.words = words;
+        }
+    }
 
     // Abstraction Function:
     //  maxHeight - max height of skyscrapers in a set
-    //  cluePermutationList.get(clue) - all possible permutations of skyscrapers in a row so that only "clue" of skyscrapers are visible from the front
+    //  clueTables[clue].heights - all possible permutations of skyscrapers in a row so that only "clue" of skyscrapers are visible from the front,
+    //                           permutation i takes bytes i*maxHeight .. (i+1)*maxHeight-1
+    //  permutations cluePairStart[clue][back] .. cluePairStart[clue][back + 1] - 1 of clueTables[clue]
+    //                           - permutations so that "back" of skyscrapers are visible from the back
+    //  clueTables[clue].columns - the same permutations as bit sets of permutations with a height at a position
 
     // Safety from rep exposure:
     //  attributes are private
     //  no setters exposed
-    //  all getters return either a primitive type or a deep copy of a collection
+    //  all getters return either a primitive type or a copy of a permutation,
+    //  except package-private getHeights() and getHeightColumns() that share arrays with the solver, which only reads them
+
+    // Thread safety:
+    //  clueTables elements are written once under the lock and never change afterwards,
+    //  ClueTable is immutable, so readers either see null and take the lock or see complete permutations
 
     // Rep invariant:
-    //  cluePermutationList.size() == maxHeight
-    //  each permutation.size == maxHeight
+    //  clueTables.length == maxHeight + 1
+    //  cluePairStart[clue] is non decreasing
+    //  clueTables[clue] == null or clueTables[clue].heights.length == cluePairStart[clue][maxHeight + 1] * maxHeight
     //  number of all permutations for all clues == (maxHeight!)
-    // TODO checkRep()
     private void checkRep() {
-        assert cluePermutationList.size() == maxHeight;
-        for (Map.Entry<Integer, List<List<Integer>>> permutation:
-                cluePermutationList.entrySet()) {
-            assert permutation.getValue().size() == maxHeight;
+        assert clueTables.length == maxHeight + 1;
+        long count = 0;
+        for (int clue = 1; clue <= maxHeight; clue++) {
+            for (int back = 1; back <= maxHeight; back++)
+                assert cluePairStart[clue][back] <= cluePairStart[clue][back + 1];
+            assert clueTables[clue] == null
+                    || cluePairStart[clue][maxHeight + 1] * maxHeight == clueTables[clue].heights.length;
+            count += cluePairStart[clue][maxHeight + 1];
         }
+        assert count == factorial(maxHeight);
     }
+
     /**
      * Constructs SkyScrapersPermutations for given maximum skyscraper height.
-     * Calculates all possible skyscraper permutations for all possible visibiity clues.
+     * Calculates number of skyscraper permutations for all possible visibiity clues,
+     * permutations for a clue are calculated when they are first needed.
+     * Instances are thread safe.
      * @param maxHeight - value from 1 to 10
      */
     public SkyScrapersPermutations(int maxHeight) {
@@ -57,7 +96,10 @@ public class SkyScrapersPermutations {
             throw new IllegalArgumentException();
 
         this.maxHeight = maxHeight;
-        populateCluePermutationList();
+        this.clueTables = new ClueTable[maxHeight + 1];
+        this.cluePairStart = new int[maxHeight + 1][maxHeight + 2];
+        this.visibility = new SkyScrapersVisibility(maxHeight);
+        populateCluePairStart();
     }
 
     /**
@@ -65,7 +107,7 @@ public class SkyScrapersPermutations {
      * @return Returns number of visibility clues
      */
     public int getClueCount() {
-        return cluePermutationList.size();
+        return maxHeight;
     }
 
     /**
@@ -73,12 +115,7 @@ public class SkyScrapersPermutations {
      * @return Returns number of all permutations for all clues
      */
     public int getAllPermutationsCount() {
-        int count = 0;
-        for (Map.Entry<Integer, List<List<Integer>>> entry : cluePermutationList.entrySet()
-             ) {
-            count += entry.getValue().size();
-        }
-        return count;
+        return (int) factorial(maxHeight);
     }
 
     /**
@@ -88,121 +125,231 @@ public class SkyScrapersPermutations {
      * Returns 0 if no such clue exists.
      */
     public int getPermutationsForClueCount(int clue) {
-        if(cluePermutationList.containsKey(clue))
-            return cluePermutationList.get(clue).size();
+        if (clue >= 1 && clue <= maxHeight)
+            return cluePairStart[clue][maxHeight + 1];
         return 0;
     }
 
+    /**
+     * Returns a number of permutations for a pair of clues on opposite sides of a row
+     * @param clue - a clue from the front, 1 .. maxHeight
+     * @param backClue - a clue from the back, 0 if there is no clue from the back
+     * @return Returns a number of permutations matching both clues.
+     * Returns 0 if no such clue exists.
+     */
+    public int getPermutationsForCluePairCount(int clue, int backClue) {
+        if (clue < 1 || clue > maxHeight || backClue < 0 || backClue > maxHeight)
+            return 0;
+        if (backClue == 0)
+            return getPermutationsForClueCount(clue);
+        return cluePairStart[clue][backClue + 1] - cluePairStart[clue][backClue];
+    }
+
+    /**
+     * Returns an index of the first permutation for a given clue that matches a clue from the back.
+     * Permutations matching both clues have indices
+     * getCluePairStart(clue, backClue) .. getCluePairStart(clue, backClue) + getPermutationsForCluePairCount(clue, backClue) - 1
+     * @param clue - a clue from the front, 1 .. maxHeight
+     * @param backClue - a clue from the back, 0 if there is no clue from the back
+     * @return Returns an index to be used with getHeightAt(clue, index, position)
+     */
+    public int getCluePairStart(int clue, int backClue) {
+        if (clue < 1 || clue > maxHeight || backClue < 0 || backClue > maxHeight)
+            throw new IllegalArgumentException();
+        if (backClue == 0)
+            return 0;
+        return cluePairStart[clue][backClue];
+    }
+
     /**
      * Returns a permutation for a given clue at a given index
      * @param clue - a clue
      * @param index - an index
-     * @return Returns a permutation for a given clue at a given index.
+     * @return Returns a copy of a permutation for a given clue at a given index.
      * Return null if index >= permutation count for a given clue or no such clue exists.
      */
     public List<Integer> getPermutationsForClueAtIndex(int clue, int index) {
-        if(index < getPermutationsForClueCount(clue))
-            return deepClone(cluePermutationList.get(clue).get(index));
+        if (index < 0 || index >= getPermutationsForClueCount(clue))
+            return null;
 
-        return null;
+        List<Integer> result = new ArrayList<>(maxHeight);
+        for (int position = 0; position < maxHeight; position++)
+            result.add(getHeightAt(clue, index, position));
+        return result;
     }
 
-    /*
-    Returns a deepClone of permutations list
+    /**
+     * Returns a height of a skyscraper in a permutation for a given clue at a given index.
+     * Unlike getPermutationsForClueAtIndex() it does not copy the permutation.
+     * @param clue - a clue
+     * @param index - an index of a permutation, less than getPermutationsForClueCount(clue)
+     * @param position - position of a skyscraper in the permutation, 0 .. maxHeight-1
+     * @return Returns a height of a skyscraper
      */
-    private List<Integer> deepClone(List<Integer> list) {
+    public int getHeightAt(int clue, int index, int position) {
+        ClueTable table = clueTables[clue];
+        if (table == null)
+            table = populateClueTable(clue);
+        return table.heights[index * maxHeight + position];
+    }
 
-        List<Integer> result = new LinkedList<>();
+    /**
+     * Returns all permutations for a clue, permutation i takes heights i * maxHeight .. (i + 1) * maxHeight - 1.
+     * Unlike getHeightAt() it looks up the table once for many permutations.
+     * The array is shared and must not be modified.
+     * @param clue - a clue
+     */
+    byte[] getHeights(int clue) {
+        ClueTable table = clueTables[clue];
+        if (table == null)
+            table = populateClueTable(clue);
+        return table.heights;
+    }
 
-        for (Integer i : list) {
-            int copyInt = i;
-            result.add(copyInt);
-        }
+    /**
+     * Returns permutations for a clue column by column, for filtering many permutations at once:
+     * bit i of words (position * maxHeight + height - 1) * getColumnWords(clue) .. + getColumnWords(clue) - 1
+     * is set if permutation i has given height at given position.
+     * The array is shared and must not be modified.
+     * @param clue - a clue
+     */
+    long[] getHeightColumns(int clue) {
+        ClueTable table = clueTables[clue];
+        if (table == null)
+            table = populateClueTable(clue);
+        return table.columns;
+    }
 
-        return result;
+    /**
+     * Returns number of words of each column of getHeightColumns(clue)
+     */
+    int getColumnWords(int clue) {
+        return (cluePairStart[clue][maxHeight + 1] + 63) >>> 6;
     }
 
     /*
-    Populates permutations map for all possible clues from 1 to maxHeight
+    Calculates where permutations for each pair of clues start
      */
-    private void populateCluePermutationList() {
-
-        //iterate through all combination of block heights
-        //calculate its clue and put each combination on a list of combination for specific clue
-
-        int min = 1;
-        int max = maxHeight;
-
-        //number of all permutations = n!
-        List<Integer> list = new LinkedList<>();
-        for (int i = min; i <= max; i++)
-            list.add(i);
-
-        List<List<Integer>> permutations = calculatePermutations(list);
-
-        for (List<Integer> perm : permutations
-                ) {
-            Integer clue = calculateClue(perm);
-            List<List<Integer>> permsForClue = cluePermutationList.get(clue);
-            if (permsForClue == null) {
-                permsForClue = new LinkedList<List<Integer>>();
-                permsForClue.add(perm);
-                cluePermutationList.put(clue, permsForClue);
-            } else
-                permsForClue.add(perm);
+    private void populateCluePairStart() {
+
+        //number of permutations with given clues from the front and the back is known up front,
+        //so each clue gets an array of exact size and each pair of clues its own range in it
+        for (int clue = 1; clue <= maxHeight; clue++) {
+            int start = 0;
+            for (int back = 1; back <= maxHeight; back++) {
+                cluePairStart[clue][back] = start;
+                start += (int) permutationCountForCluePair(maxHeight, clue, back);
+            }
+            cluePairStart[clue][maxHeight + 1] = start;
         }
 
         checkRep();
-
     }
 
     /*
-    Calculates a clue for given permutation of skyscrapers height
+    Calculates permutations for a clue, unless another thread has done it already
      */
-    private Integer calculateClue(List<Integer> perm) {
-        int clue = 0;
-        int highest = 0;
-
-        for (Integer i : perm
-                ) {
-            if (i > highest) {
-                highest = i;
-                clue++;
+    private synchronized ClueTable populateClueTable(int clue) {
+        if (clueTables[clue] != null)
+            return clueTables[clue];
+
+        byte[] heights = new byte[cluePairStart[clue][maxHeight + 1] * maxHeight];
+        int[] filled = new int[maxHeight + 1];
+        for (int back = 1; back <= maxHeight; back++)
+            filled[back] = cluePairStart[clue][back] * maxHeight;
+
+        //go through combinations of block heights with given clue in lexicographic order
+        //calculate clue from the back and append each combination to the range for specific pair of clues
+        calculatePermutations(new byte[maxHeight], 0, 0, SkyScrapersVisibility.START, clue, heights, filled);
+
+        int count = cluePairStart[clue][maxHeight + 1];
+        int words = (count + 63) >>> 6;
+        long[] columns = new long[maxHeight * maxHeight * words];
+        for (int i = 0; i < count; i++) {
+            for (int position = 0; position < maxHeight; position++) {
+                int height = heights[i * maxHeight + position];
+                columns[(position * maxHeight + height - 1) * words + (i >>> 6)] |= 1L << i;
             }
         }
-        return clue;
+
+        clueTables[clue] = new ClueTable(heights, columns, words);
+        checkRep();
+        return clueTables[clue];
     }
 
     /*
-    Calculates all possible permutations of given list of integers.
+    Recursive method.
+    Puts every height not used yet at given position of a permutation.
+    Skips heights after which given clue cannot be reached, see {@link SkyScrapersVisibility}.
      */
-    private List<List<Integer>> calculatePermutations(List<Integer> list) {
+    private void calculatePermutations(byte[] perm, int position, int used, int state, int clue,
+                                       byte[] heights, int[] filled) {
+        if (position == maxHeight) {
+            int back = visibility.countVisible(perm, maxHeight - 1, -1);
+            System.arraycopy(perm, 0, heights, filled[back], maxHeight);
+            filled[back] += maxHeight;
+            return;
+        }
 
-        if (list.size() == 0)
-            throw new RuntimeException();
+        for (int height = 1; height <= maxHeight; height++) {
+            if ((used & (1 << height)) != 0)
+                continue;
 
-        List<List<Integer>> result = new LinkedList<List<Integer>>();
+            int newState = visibility.next(state, height);
+            if (!visibility.canReach(newState, clue))
+                continue;
 
-        if (list.size() == 1) {
-            result.add(list);
-            return result;
+            perm[position] = (byte) height;
+            calculatePermutations(perm, position + 1, used | (1 << height), newState, clue, heights, filled);
         }
+    }
 
-        for (Integer number : list
-                ) {
-            List<Integer> list2 = new LinkedList<>(list);
-            list2.remove(number);
-            List<List<Integer>> perms = calculatePermutations(list2);
-            for (List<Integer> li : perms
-                    ) {
-                li.add(0, number);
-                result.add(li);
-            }
-        }
+    /*
+    Calculates a number of permutations of n skyscrapers with given clues from the front and the back
+     */
+    private static long permutationCountForCluePair(int n, int clue, int back) {
+        //skyscraper n is visible from both sides and splits a row in two parts.
+        //there are s(n-1, clue+back-2) ways to arrange the other skyscrapers in clue+back-2 cycles,
+        //each cycle starting with its highest skyscraper, and C(clue+back-2, clue-1) ways to put cycles in front of n
+        int k = clue + back - 2;
+        if (k > n - 1)
+            return 0;
+        return stirlingFirstKind(n - 1, k) * binomial(k, clue - 1);
+    }
+
+    /*
+    Unsigned Stirling number of the first kind: number of permutations of n elements with k cycles
+     */
+    private static long stirlingFirstKind(int n, int k) {
+        long[] counts = new long[n + 1];
+        counts[0] = 1;
+        for (int m = 1; m <= n; m++)
+            for (int j = m; j >= 0; j--)
+                counts[j] = (j > 0 ? counts[j - 1] : 0) + (m - 1) * counts[j];
+        return counts[k];
+    }
 
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int i = 1; i <= k; i++)
+            result = result * (n - k + i) / i;
         return result;
     }
 
+    private static long factorial(int n) {
+        long result = 1;
+        for (int i = 2; i <= n; i++)
+            result *= i;
+        return result;
+    }
+
+    /**
+     * Returns tables for counting visible skyscrapers for this size
+     */
+    SkyScrapersVisibility getVisibility() {
+        return visibility;
+    }
+
     public int getMaxHeight() {
         return maxHeight;
     }
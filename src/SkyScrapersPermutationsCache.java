@@ -0,0 +1,106 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Cache of SkyScrapersPermutations for different board sizes.
+ *
+ * Permutations for a size are created on first request and shared by all threads.
+ * Looking up a cached size does not take any lock.
+ * Sizes up to a pinned size are never evicted, their permutations are small.
+ * When more larger sizes than the capacity are cached, the larger size requested least recently is evicted.
+ *
+ * Instances are thread safe.
+ */
+class SkyScrapersPermutationsCache {
+
+    //last use time is updated at most once per this period, so threads do not keep writing the same entry
+    private static final long TOUCH_PERIOD_NANOS = 1_000_000;
+
+    private final int pinnedMaxSize;
+    private final int capacity;
+    //called with each evicted size, null if nobody listens
+    private final IntConsumer evictionListener;
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    private static final class Entry {
+        private final SkyScrapersPermutations permutations;
+        private volatile long lastUsed;
+
+        Entry(SkyScrapersPermutations permutations) {
+            this.permutations = permutations;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * @param capacity - max number of sizes to keep
+     */
+    SkyScrapersPermutationsCache(int capacity) {
+        this(0, capacity, null);
+    }
+
+    /**
+     * @param pinnedMaxSize - sizes up to this one are kept once created
+     * @param capacity - max number of sizes above pinnedMaxSize to keep
+     * @param evictionListener - called with each evicted size after it is removed, null if not needed
+     */
+    SkyScrapersPermutationsCache(int pinnedMaxSize, int capacity, IntConsumer evictionListener) {
+        if (pinnedMaxSize < 0 || capacity <= 0)
+            throw new IllegalArgumentException();
+
+        this.pinnedMaxSize = pinnedMaxSize;
+        this.capacity = capacity;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Returns permutations for a given size, creates them on first request
+     * @param size - max height of skyscrapers, 1 to 10
+     * @return Returns permutations shared by all callers asking for the same size
+     */
+    SkyScrapersPermutations get(int size) {
+        Entry entry = entries.get(size);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(size, s -> new Entry(new SkyScrapersPermutations(s)));
+            if (size > pinnedMaxSize)
+                evict(size);
+        }
+
+        long now = System.nanoTime();
+        if (now - entry.lastUsed > TOUCH_PERIOD_NANOS)
+            entry.lastUsed = now;
+
+        return entry.permutations;
+    }
+
+    /**
+     * Returns true if permutations for a size are cached
+     */
+    boolean contains(int size) {
+        return entries.containsKey(size);
+    }
+
+    /*
+    Removes least recently used sizes above the pinned size until they fit the capacity, keeps given size
+     */
+    private synchronized void evict(int keep) {
+        while (true) {
+            int count = 0;
+            Map.Entry<Integer, Entry> oldest = null;
+            for (Map.Entry<Integer, Entry> entry : entries.entrySet()) {
+                if (entry.getKey() <= pinnedMaxSize)
+                    continue;
+                count++;
+                if (entry.getKey() == keep)
+                    continue;
+                if (oldest == null || entry.getValue().lastUsed - oldest.getValue().lastUsed < 0)
+                    oldest = entry;
+            }
+            if (count <= capacity || oldest == null)
+                return;
+            if (entries.remove(oldest.getKey(), oldest.getValue()) && evictionListener != null)
+                evictionListener.accept(oldest.getKey());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Binary format of files with puzzles and their solutions.
+ *
+ * A file is a header followed by records of the same length, so a record can be found by its index.
+ *
+ * Header, 8 bytes:
+ * - magic number "SKYR", big endian int
+ * - format version, byte
+ * - board size N, byte
+ * - 2 reserved bytes, 0
+ *
+ * Record:
+ * - 4 * N clues, 4 bits each, two clues per byte, the first clue in the lower bits
+ * - N * N cells of the solution row by row, ceil(log2(N + 1)) bits each, from the lowest bit of each byte,
+ *   padded with 0 bits to a whole byte. All cells are 0 if the puzzle is not solved or has no solution.
+ *
+ * Methods read and write buffers at absolute positions, they do not change buffer positions.
+ */
+class SkyScrapersRecordFormat {
+
+    static final int MAGIC = 0x534B5952;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    private SkyScrapersRecordFormat() {
+    }
+
+    /**
+     * Returns number of bits of a cell, enough for heights 0 to N
+     */
+    static int bitsPerCell(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size);
+    }
+
+    /**
+     * Returns number of bytes of a record for board size N
+     */
+    static int recordSize(int size) {
+        return 2 * size + (size * size * bitsPerCell(size) + 7) / 8;
+    }
+
+    static void writeHeader(ByteBuffer buffer, int size) {
+        buffer.putInt(0, MAGIC);
+        buffer.put(4, (byte) VERSION);
+        buffer.put(5, (byte) size);
+        buffer.put(6, (byte) 0);
+        buffer.put(7, (byte) 0);
+    }
+
+    /**
+     * Checks a header and returns board size N from it
+     */
+    static int readHeader(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IllegalArgumentException("not a puzzle file");
+        if (buffer.get(4) != VERSION)
+            throw new IllegalArgumentException("unsupported puzzle file version " + buffer.get(4));
+
+        int size = buffer.get(5);
+        if (size <= 0 || size > SkyScrapers.MAX_SIZE)
+            throw new IllegalArgumentException("unsupported board size " + size);
+        return size;
+    }
+
+    /**
+     * Writes a record
+     * @param buffer - buffer to write to
+     * @param offset - position of the record in the buffer
+     * @param size - board size N
+     * @param clues - array of 4 * N clues from 0 to N
+     * @param solution - board N x N, null if there is no solution
+     */
+    static void writeRecord(ByteBuffer buffer, int offset, int size, int[] clues, int[][] solution) {
+        for (int i = 0; i < 2 * size; i++)
+            buffer.put(offset + i, (byte) (clues[2 * i] | clues[2 * i + 1] << 4));
+        writeSolution(buffer, offset, size, solution);
+    }
+
+    /**
+     * Writes the solution part of a record
+     * @param solution - board N x N, null if there is no solution
+     */
+    static void writeSolution(ByteBuffer buffer, int offset, int size, int[][] solution) {
+        int bits = bitsPerCell(size);
+        int position = offset + 2 * size;
+        int pending = 0;
+        int pendingBits = 0;
+        for (int index = 0; index < size * size; index++) {
+            int cell = solution == null ? 0 : solution[index / size][index % size];
+            pending |= cell << pendingBits;
+            pendingBits += bits;
+            if (pendingBits >= 8) {
+                buffer.put(position++, (byte) pending);
+                pending >>>= 8;
+                pendingBits -= 8;
+            }
+        }
+        if (pendingBits > 0)
+            buffer.put(position, (byte) pending);
+    }
+
+    /**
+     * Reads clues of a record
+     * @param out - array of at least 4 * N clues
+     */
+    static void readClues(ByteBuffer buffer, int offset, int size, int[] out) {
+        for (int i = 0; i < 2 * size; i++) {
+            int b = buffer.get(offset + i);
+            out[2 * i] = b & 0xF;
+            out[2 * i + 1] = (b >> 4) & 0xF;
+        }
+    }
+
+    /**
+     * Reads the solution of a record
+     * @param out - board N x N
+     * @return Returns false if the record has no solution, out is filled with 0 then
+     */
+    static boolean readSolution(ByteBuffer buffer, int offset, int size, int[][] out) {
+        int bits = bitsPerCell(size);
+        int mask = (1 << bits) - 1;
+        int position = offset + 2 * size;
+        int pending = 0;
+        int pendingBits = 0;
+        boolean solved = false;
+        for (int index = 0; index < size * size; index++) {
+            if (pendingBits < bits) {
+                pending |= (buffer.get(position++) & 0xFF) << pendingBits;
+                pendingBits += 8;
+            }
+            int cell = pending & mask;
+            pending >>>= bits;
+            pendingBits -= bits;
+            out[index / size][index % size] = cell;
+            solved |= cell != 0;
+        }
+        return solved;
+    }
+}
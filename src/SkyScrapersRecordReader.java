@@ -0,0 +1,102 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads puzzles and solutions from a file in the format of {@link SkyScrapersRecordFormat}.
+ *
+ * The file is mapped into memory, records are read straight from the mapping into arrays given by the caller,
+ * so reading does not allocate.
+ * Records are read at absolute positions, so a reader can be shared by threads.
+ * Files larger than 2 GB are mapped in several segments.
+ */
+public class SkyScrapersRecordReader implements Closeable {
+
+    private final FileChannel channel;
+    private final int size;
+    private final int recordSize;
+    private final long recordCount;
+
+    //records of each mapped segment
+    private final int segmentRecords;
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Opens a file and maps it into memory
+     * @param path - file written by {@link SkyScrapersRecordWriter}
+     */
+    public SkyScrapersRecordReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(SkyScrapersRecordFormat.HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                //read the whole header
+            }
+            header.flip();
+            size = SkyScrapersRecordFormat.readHeader(header);
+            recordSize = SkyScrapersRecordFormat.recordSize(size);
+            recordCount = (channel.size() - SkyScrapersRecordFormat.HEADER_SIZE) / recordSize;
+
+            segmentRecords = Integer.MAX_VALUE / recordSize;
+            segments = new MappedByteBuffer[(int) ((recordCount + segmentRecords - 1) / segmentRecords)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i * segmentRecords;
+                long records = Math.min(segmentRecords, recordCount - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        SkyScrapersRecordFormat.HEADER_SIZE + first * recordSize, records * recordSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns board size N of all records
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Reads clues of a record
+     * @param record - index of the record
+     * @param out - array of at least 4 * N clues
+     */
+    public void readClues(long record, int[] out) {
+        SkyScrapersRecordFormat.readClues(segment(record), offset(record), size, out);
+    }
+
+    /**
+     * Reads the solution of a record
+     * @param record - index of the record
+     * @param out - board N x N
+     * @return Returns false if the record has no solution, out is filled with 0 then
+     */
+    public boolean readSolution(long record, int[][] out) {
+        return SkyScrapersRecordFormat.readSolution(segment(record), offset(record), size, out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer segment(long record) {
+        if (record < 0 || record >= recordCount)
+            throw new IndexOutOfBoundsException();
+        return segments[(int) (record / segmentRecords)];
+    }
+
+    private int offset(long record) {
+        return (int) (record % segmentRecords) * recordSize;
+    }
+}
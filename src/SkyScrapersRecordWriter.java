@@ -0,0 +1,93 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes puzzles and solutions to a file in the format of {@link SkyScrapersRecordFormat}.
+ *
+ * Records are collected in a direct buffer and written to the file channel when it is full,
+ * writing does not allocate.
+ *
+ * Writer is not thread safe.
+ */
+public class SkyScrapersRecordWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final int size;
+    private final int recordSize;
+    private final ByteBuffer buffer;
+    private long recordCount;
+
+    /**
+     * Creates a file, replacing an existing one, and writes its header
+     * @param path - file to write
+     * @param size - board size N of all records, from 1 to 9
+     */
+    public SkyScrapersRecordWriter(Path path, int size) throws IOException {
+
+        if (size <= 0 || size > SkyScrapers.MAX_SIZE)
+            throw new IllegalArgumentException();
+
+        this.size = size;
+        this.recordSize = SkyScrapersRecordFormat.recordSize(size);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE / recordSize, 1) * recordSize);
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(SkyScrapersRecordFormat.HEADER_SIZE);
+        SkyScrapersRecordFormat.writeHeader(header, size);
+        writeFully(header);
+    }
+
+    /**
+     * Writes a record
+     * @param clues - array of 4 * N clues from 0 to N
+     * @param solution - board N x N, null if the puzzle is not solved or has no solution
+     */
+    public void write(int[] clues, int[][] solution) throws IOException {
+        if (clues.length < 4 * size)
+            throw new IllegalArgumentException();
+        for (int position = 0; position < 4 * size; position++)
+            if (clues[position] < 0 || clues[position] > size)
+                throw new IllegalArgumentException();
+
+        if (buffer.remaining() < recordSize)
+            flush();
+
+        SkyScrapersRecordFormat.writeRecord(buffer, buffer.position(), size, clues, solution);
+        buffer.position(buffer.position() + recordSize);
+        recordCount++;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes buffered records to the file
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining())
+            channel.write(data);
+    }
+}
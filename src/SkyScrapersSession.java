@@ -0,0 +1,111 @@
+/**
+ * Puzzle being edited one clue at a time, re-solved after each change.
+ *
+ * A session keeps its own solver and the last solution.
+ * After a clue changes:
+ * - if the last solution still matches the changed clue, it is the solution and no search is needed,
+ *   e.g. when a clue is removed or set to what the solution shows anyway
+ * - else the clues are checked for contradictions, rejecting them without a search
+ * - else the puzzle is solved again with the session's solver, which has all its memory allocated already
+ *
+ * Session is not thread safe.
+ */
+public class SkyScrapersSession {
+
+    private final int size;
+    private final SkyScrapersSolver solver;
+    private final int[] clues;
+
+    //last solution, null if the clues have no solution
+    private int[][] solution;
+    private SolveResult result;
+
+    /**
+     * Creates a session without clues
+     * @param size - board size N, from 1 to 9
+     */
+    public SkyScrapersSession(int size) {
+        this(new int[4 * size], size);
+    }
+
+    /**
+     * @param clues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     */
+    public SkyScrapersSession(int[] clues, int size) {
+
+        SkyScrapers.checkPuzzle(clues, size);
+
+        this.size = size;
+        this.solver = new SkyScrapersSolver(SkyScrapers.getPermutations(size));
+        this.clues = new int[4 * size];
+        System.arraycopy(clues, 0, this.clues, 0, 4 * size);
+        solve();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getClue(int position) {
+        return clues[position];
+    }
+
+    /**
+     * Returns a copy of current clues
+     */
+    public int[] getClues() {
+        return clues.clone();
+    }
+
+    /**
+     * Returns the result for current clues
+     */
+    public SolveResult getResult() {
+        return result;
+    }
+
+    /**
+     * Changes a clue and solves the puzzle again
+     * @param position - position of the clue, see {@link ClueWithCellIndices}
+     * @param clue - clue from 0 to N, 0 to remove the clue
+     * @return Returns SOLVED with a board or UNSOLVABLE for the changed clues
+     */
+    public SolveResult setClue(int position, int clue) {
+
+        ClueWithCellIndices changed = new ClueWithCellIndices(clue, position, size);
+        if (clues[position] == clue)
+            return result;
+
+        clues[position] = clue;
+        if (solution != null && changed.isSatisfiedBy(solution)) {
+            //other clues did not change, so the last solution matches all of them
+            result = new SolveResult(SolveResult.Outcome.SOLVED, copy(solution));
+            return result;
+        }
+
+        return solve();
+    }
+
+    /*
+    Solves the puzzle for current clues
+     */
+    private SolveResult solve() {
+        if (solver.solve(clues)) {
+            solution = new int[size][size];
+            solver.copyBoard(solution);
+            result = new SolveResult(SolveResult.Outcome.SOLVED, copy(solution));
+        } else {
+            solution = null;
+            result = new SolveResult(SolveResult.Outcome.UNSOLVABLE, null, solver.getContradiction());
+        }
+        return result;
+    }
+
+    private int[][] copy(int[][] board) {
+        int[][] result = new int[size][];
+        for (int row = 0; row < size; row++)
+            result[row] = board[row].clone();
+        return result;
+    }
+}
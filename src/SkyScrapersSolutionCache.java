@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of solved puzzles in front of {@link SkyScrapers#solvePuzzle(int[], int)}.
+ *
+ * A puzzle rotated or mirrored has the same solution rotated or mirrored,
+ * so clues are brought to a canonical form first: the smallest of the 8 clue arrays
+ * got by rotating and mirroring the board (see {@link ClueWithCellIndices#transformPosition}).
+ * Solutions are cached for canonical clues and transformed back for each request.
+ * Puzzles without a solution are cached too.
+ *
+ * The cache is split into segments, each keeps its entries in least recently used order
+ * and evicts the least recently used one when full.
+ *
+ * Instances are thread safe.
+ */
+public class SkyScrapersSolutionCache {
+
+    //number of segments, a power of 2
+    private static final int SEGMENTS = 16;
+
+    //cached value of puzzles without a solution
+    private static final int[] NO_SOLUTION = new int[0];
+
+    //8 symmetries of each board size
+    private static final Symmetry[][] symmetries = new Symmetry[SkyScrapers.MAX_SIZE + 1][8];
+
+    static {
+        for (int size = 1; size <= SkyScrapers.MAX_SIZE; size++) {
+            for (int rotations = 0; rotations < 4; rotations++) {
+                symmetries[size][rotations] = new Symmetry(size, rotations, false);
+                symmetries[size][4 + rotations] = new Symmetry(size, rotations, true);
+            }
+        }
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /*
+    Rotation and mirroring of a board: where each clue position and each cell goes
+     */
+    private static final class Symmetry {
+        private final int[] positions;
+        private final int[] cells;
+
+        Symmetry(int size, int rotations, boolean mirror) {
+            positions = new int[4 * size];
+            for (int position = 0; position < 4 * size; position++)
+                positions[position] = ClueWithCellIndices.transformPosition(position, size, rotations, mirror);
+
+            //k-th cell seen from a clue is k-th cell seen from the transformed clue,
+            //clues of the top side see all cells
+            cells = new int[size * size];
+            for (int position = 0; position < size; position++) {
+                int[] from = new ClueWithCellIndices(0, position, size).getCellIndices();
+                int[] to = new ClueWithCellIndices(0, positions[position], size).getCellIndices();
+                for (int k = 0; k < size; k++)
+                    cells[from[k]] = to[k];
+            }
+        }
+    }
+
+    /*
+    Canonical clues of a puzzle
+     */
+    private static final class Key {
+        private final int[] clues;
+        private final int hash;
+
+        Key(int[] clues) {
+            this.clues = clues;
+            this.hash = Arrays.hashCode(clues);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(clues, ((Key) o).clues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /*
+    Part of the cache, least recently used entries first
+     */
+    private static final class Segment extends LinkedHashMap<Key, int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * @param capacity - max number of puzzles to keep
+     */
+    public SkyScrapersSolutionCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException();
+
+        for (int i = 0; i < SEGMENTS; i++)
+            segments[i] = new Segment((capacity + SEGMENTS - 1) / SEGMENTS);
+    }
+
+    /**
+     * Returns a cached solution of a puzzle or of its rotation or mirror image, solves the puzzle if there is none
+     * @param clues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @param size - board size N, from 1 to 9
+     * @return Returns a board NxN of skyscrapers heights that matches given clues.
+     *          Returns null if the puzzle could not be solved.
+     */
+    public int[][] solvePuzzle(int[] clues, int size) {
+
+        SkyScrapers.checkPuzzle(clues, size);
+
+        //find the smallest transformed clues
+        Symmetry canonical = null;
+        int[] canonicalClues = null;
+        int[] transformed = new int[4 * size];
+        for (Symmetry symmetry : symmetries[size]) {
+            for (int position = 0; position < 4 * size; position++)
+                transformed[symmetry.positions[position]] = clues[position];
+            if (canonical == null || compare(transformed, canonicalClues) < 0) {
+                canonical = symmetry;
+                canonicalClues = transformed.clone();
+            }
+        }
+
+        Key key = new Key(canonicalClues);
+        Segment segment = segments[(key.hash ^ key.hash >>> 16) & (SEGMENTS - 1)];
+        int[] cells;
+        synchronized (segment) {
+            cells = segment.get(key);
+        }
+
+        if (cells != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            int[][] board = SkyScrapers.solvePuzzle(canonicalClues, size);
+            cells = NO_SOLUTION;
+            if (board != null) {
+                cells = new int[size * size];
+                for (int row = 0; row < size; row++)
+                    System.arraycopy(board[row], 0, cells, row * size, size);
+            }
+            synchronized (segment) {
+                segment.put(key, cells);
+            }
+        }
+
+        if (cells == NO_SOLUTION)
+            return null; //could not solve the puzzle
+
+        //transform the canonical solution back
+        int[][] result = new int[size][size];
+        for (int index = 0; index < size * size; index++)
+            result[index / size][index % size] = cells[canonical.cells[index]];
+        return result;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns share of requests answered from the cache, 0 if there were no requests
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns number of cached puzzles
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static int compare(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++)
+            if (a[i] != b[i])
+                return a[i] < b[i] ? -1 : 1;
+        return 0;
+    }
+}
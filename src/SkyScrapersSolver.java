@@ -0,0 +1,1070 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Solves skyscrapers puzzles of a given board size.
+ *
+ * The solver keeps a single Board and mutates it in place while searching.
+ * Every change is recorded on an undo trail, so backtracking is an undo() call
+ * and a solve does not allocate anything once the solver has seen puzzles of similar shape.
+ *
+ * Before and during the search constraints are propagated to a fixpoint:
+ * - clues at the edge limit heights of cells next to them
+ * - each row or column with a clue keeps a list of Permutations still possible for it,
+ *   Permutations not fitting cell heights are removed and cell heights not used by any Permutation are removed
+ * - a cell with only one possible height and a height possible in only one cell of a row or column are placed
+ *
+ * The search keeps its own stack of decisions instead of recursing,
+ * so it can stop at a solution and later continue to the next one, see nextSolution().
+ *
+ * Solver is not thread safe, use one instance per thread.
+ */
+class SkyScrapersSolver {
+
+    //deadline and interruption are checked once per this many search nodes, a power of 2
+    private static final int CHECK_PERIOD = 1024;
+
+    //lines with at least this many Permutations left are filtered a word of 64 Permutations at a time
+    static final int BIT_SLICED_MIN_CANDIDATES = 32;
+
+    private final int size;
+    private final SkyScrapersPermutations permutations;
+    private final Board board;
+
+    //cell indices for each clue position, ordered in a direction of the clue
+    private final int[][] clueCellIndices;
+
+    //finds clues without a solution before the search
+    private final SkyScrapersClueValidator validator;
+    //contradiction found by the validator in the current clues, null if none
+    private String contradiction;
+
+    //clues of the puzzle being solved
+    private final int[] clues;
+    //positions of clues to look for Permutations for,
+    //one position for each row or column with a non-zero clue on either side, the greater clue of two.
+    //further on such a row or column is called a line and is identified by its index in clueOrder
+    private final int[] clueOrder;
+    private int clueCount;
+
+    //line of each row and column, -1 if a row or column has no clues
+    private final int[] rowLine;
+    private final int[] colLine;
+
+    //indices of Permutations possible for each line, the first lineSize[line] of them are still possible
+    private final int[][] lineCandidates;
+    private final int[] lineSize;
+    //range of indices of Permutations for clues of each line
+    private final int[] lineRangeStart;
+    private final int[] lineRangeEnd;
+    //lines to filter during propagation, bit per line
+    private long dirtyLines;
+
+    //undo trail of lineSize changes, pairs of line and previous size
+    private int[] lineTrail = new int[64];
+    private int lineTrailSize;
+
+    //scratch space for filtering a line
+    private final int[] lineMasks;
+    private final int[] unionMasks;
+    //scratch space for filtering a line a word at a time, bit sets of Permutations of a line range:
+    //Permutations fitting heights possible in cells, and Permutations kept
+    private long[] fittingWords = new long[0];
+    private long[] keptWords = new long[0];
+    private int bitSlicedMinCandidates = BIT_SLICED_MIN_CANDIDATES;
+
+    //search stack, a frame for each line or cell being decided
+    //line of a frame, or ~index of a cell
+    private final int[] frameVar;
+    //marks of undo trails before the first option of a frame
+    private final int[] frameBoardMark;
+    private final int[] frameLineMark;
+    //marks of undo trails before the option of a line being tried
+    private final int[] optionBoardMark;
+    private final int[] optionLineMark;
+    //heights of a cell not tried yet
+    private final int[] frameHeights;
+    private int frameCount;
+    //first cell frame on the stack, -1 if none, and when timing of the blank-cell phase started
+    private int blankFrame = -1;
+    private long blankStart;
+
+    //search stops when set, null if search cannot be cancelled
+    private AtomicBoolean cancelled;
+
+    //search stops after this many nodes or after the deadline, Long.MAX_VALUE if not limited
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeoutNanos = Long.MAX_VALUE;
+    private long deadline;
+    //search nodes visited in the current solve
+    private long nodes;
+    //why the current search was stopped, null if it was not
+    private SolveResult.Outcome stopReason;
+
+    //statistics of the current solve, null if not collected
+    private SolveStats stats;
+
+    /**
+     * @param permutations - permutations for the board size, size is taken from permutations.getMaxHeight()
+     */
+    SkyScrapersSolver(SkyScrapersPermutations permutations) {
+        this.permutations = permutations;
+        this.size = permutations.getMaxHeight();
+        this.board = new Board(size);
+
+        clueCellIndices = new int[4 * size][];
+        for (int position = 0; position < 4 * size; position++)
+            clueCellIndices[position] = new ClueWithCellIndices(0, position, size).getCellIndices();
+        validator = new SkyScrapersClueValidator(permutations, clueCellIndices);
+
+        clues = new int[4 * size];
+        clueOrder = new int[4 * size];
+        rowLine = new int[size];
+        colLine = new int[size];
+        lineCandidates = new int[2 * size][];
+        lineSize = new int[2 * size];
+        lineRangeStart = new int[2 * size];
+        lineRangeEnd = new int[2 * size];
+        lineMasks = new int[size];
+        unionMasks = new int[size];
+
+        //at most one frame per line and per cell
+        int maxFrames = 2 * size + size * size;
+        frameVar = new int[maxFrames];
+        frameBoardMark = new int[maxFrames];
+        frameLineMark = new int[maxFrames];
+        optionBoardMark = new int[maxFrames];
+        optionLineMark = new int[maxFrames];
+        frameHeights = new int[maxFrames];
+    }
+
+    //initialize solver with a copy of another solver's state
+    SkyScrapersSolver(SkyScrapersSolver anotherSolver) {
+        permutations = anotherSolver.permutations;
+        size = anotherSolver.size;
+        board = new Board(anotherSolver.board);
+        clueCellIndices = anotherSolver.clueCellIndices;
+        validator = new SkyScrapersClueValidator(permutations, clueCellIndices);
+
+        clues = anotherSolver.clues.clone();
+        clueOrder = anotherSolver.clueOrder.clone();
+        clueCount = anotherSolver.clueCount;
+        rowLine = anotherSolver.rowLine.clone();
+        colLine = anotherSolver.colLine.clone();
+        //Permutations past the size of a line are never restored, the copy cannot undo below the copied state
+        lineCandidates = new int[2 * size][];
+        for (int line = 0; line < clueCount; line++)
+            lineCandidates[line] = Arrays.copyOf(anotherSolver.lineCandidates[line], anotherSolver.lineSize[line]);
+        lineSize = anotherSolver.lineSize.clone();
+        lineRangeStart = anotherSolver.lineRangeStart.clone();
+        lineRangeEnd = anotherSolver.lineRangeEnd.clone();
+        bitSlicedMinCandidates = anotherSolver.bitSlicedMinCandidates;
+        dirtyLines = anotherSolver.dirtyLines;
+        lineTrail = new int[64];
+        lineMasks = new int[size];
+        unionMasks = new int[size];
+        cancelled = anotherSolver.cancelled;
+
+        //the copy starts its own search from the copied state
+        int maxFrames = anotherSolver.frameVar.length;
+        frameVar = new int[maxFrames];
+        frameBoardMark = new int[maxFrames];
+        frameLineMark = new int[maxFrames];
+        optionBoardMark = new int[maxFrames];
+        optionLineMark = new int[maxFrames];
+        frameHeights = new int[maxFrames];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public SkyScrapersPermutations getPermutations() {
+        return permutations;
+    }
+
+    /**
+     * Solves a puzzle for given clues.
+     * On success the solution is available via getBoard() until the next call.
+     * @param inClues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @return Returns true if the puzzle was solved, false if it has no solution
+     */
+    public boolean solve(int[] inClues) {
+        return prepare(inClues) && search();
+    }
+
+    /**
+     * Solves a puzzle for given clues and heights given in some cells.
+     * On success the solution is available via getBoard() until the next call.
+     * @param inClues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @param givens - board N x N of given heights from 1 to N, 0 in cells to solve
+     * @return Returns true if the puzzle was solved, false if it has no solution
+     */
+    public boolean solve(int[] inClues, int[][] givens) {
+        return prepare(inClues, givens) && search();
+    }
+
+    /**
+     * Sets up the board for given clues and propagates constraints, without searching.
+     * Clues are checked for simple contradictions first, see getContradiction().
+     * @param inClues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @return Returns false if the clues are contradictory
+     */
+    boolean prepare(int[] inClues) {
+        return prepare(inClues, null);
+    }
+
+    /**
+     * Sets up the board for given clues and given heights and propagates constraints, without searching.
+     * Given heights are placed after clues limit heights of cells next to them, before the propagation.
+     * @param inClues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @param givens - board N x N of given heights from 1 to N, 0 in cells to solve, null if none are given
+     * @return Returns false if the clues and given heights are contradictory
+     */
+    boolean prepare(int[] inClues, int[][] givens) {
+
+        if (inClues.length < 4 * size)
+            throw new IllegalArgumentException();
+
+        if (givens != null) {
+            if (givens.length != size)
+                throw new IllegalArgumentException();
+            for (int[] row : givens)
+                if (row.length != size)
+                    throw new IllegalArgumentException();
+        }
+
+        long start = 0;
+        if (stats != null) {
+            stats.reset(size);
+            start = System.nanoTime();
+        }
+        nodes = 0;
+        stopReason = null;
+        frameCount = 0;
+        blankFrame = -1;
+        if (timeoutNanos != Long.MAX_VALUE)
+            deadline = System.nanoTime() + timeoutNanos;
+
+        //start with clear board
+        board.undoTo(0);
+        lineTrailSize = 0;
+
+        for (int position = 0; position < 4 * size; position++) {
+            if (inClues[position] < 0 || inClues[position] > size)
+                throw new IllegalArgumentException();
+            clues[position] = inClues[position];
+        }
+
+        contradiction = validator.findContradiction(clues);
+        if (contradiction != null) {
+            if (stats != null)
+                stats.addPrepareNanos(System.nanoTime() - start);
+            return false;
+        }
+
+        //collect non-zero clues
+        //a clue with a greater or equal clue on the opposite side is covered by Permutations of that clue
+        clueCount = 0;
+        for (int position = 0; position < 4 * size; position++) {
+            int clue = clues[position];
+            int opposite = ClueWithCellIndices.oppositePosition(position, size);
+            if (clue == 0 || clue < clues[opposite] || clue == clues[opposite] && position > opposite)
+                continue;
+
+            clueOrder[clueCount++] = position;
+        }
+
+        initializeLines();
+        applyEdgeClues();
+
+        boolean result = givens == null || placeGivens(givens);
+        dirtyLines = allLines();
+        result = result && propagate();
+
+        if (stats != null)
+            stats.addPrepareNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Searches for a solution from the current state.
+     * On success the solution is available via getBoard().
+     * @return Returns true if the puzzle was solved, false if it has no solution or the search was cancelled
+     */
+    boolean search() {
+        frameCount = 0;
+        blankFrame = -1;
+        return timedRun(false);
+    }
+
+    /**
+     * Continues the search after the solution found by the last search() or nextSolution() call.
+     * On success the next solution is available via getBoard().
+     * @return Returns true if another solution was found,
+     *          false if there are no more solutions or the search was cancelled
+     */
+    boolean nextSolution() {
+        if (frameCount == 0)
+            //no decisions were made, there is no other solution
+            return false;
+        return timedRun(true);
+    }
+
+    /**
+     * Counts solutions of a puzzle, stops counting at a limit
+     * @param inClues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @param limit - number of solutions to stop at
+     * @return Returns number of solutions, at most limit.
+     *          Fewer solutions are counted if the search was stopped, see getStopReason()
+     */
+    long countSolutions(int[] inClues, long limit) {
+        if (limit <= 0 || !prepare(inClues) || !search())
+            return 0;
+
+        long count = 1;
+        while (count < limit && nextSolution())
+            count++;
+        return count;
+    }
+
+    /**
+     * Returns a contradiction found in clues of the last prepare() before the search, null if none was found
+     */
+    String getContradiction() {
+        return contradiction;
+    }
+
+    /**
+     * Limits following solves, a limited search stops with getStopReason() TIMED_OUT
+     * @param maxNodes - max number of search nodes, Long.MAX_VALUE if not limited
+     * @param timeoutNanos - max time of a solve from the start of prepare(), Long.MAX_VALUE if not limited
+     */
+    void setLimits(long maxNodes, long timeoutNanos) {
+        this.nodeLimit = maxNodes;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Returns why the last search was stopped before it finished:
+     * TIMED_OUT if it reached a limit, CANCELLED if it was cancelled or the thread was interrupted.
+     * Returns null if the search was not stopped.
+     */
+    SolveResult.Outcome getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Sets statistics to fill by following solves
+     * @param stats - statistics reset by each solve, null to stop collecting them
+     */
+    void setStats(SolveStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Sets from how many Permutations left a line is filtered a word of 64 Permutations at a time.
+     * Both ways of filtering give the same results, so this only changes speed.
+     * @param minCandidates - number of Permutations, Integer.MAX_VALUE to always filter one Permutation at a time
+     */
+    void setBitSlicedMinCandidates(int minCandidates) {
+        this.bitSlicedMinCandidates = minCandidates;
+    }
+
+    /**
+     * Sets a flag that stops the search once it is set
+     * @param cancelled - flag shared with other threads, null if search cannot be cancelled
+     */
+    void setCancellation(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Stops the search in this solver and all solvers sharing its cancellation flag
+     */
+    void cancel() {
+        if (cancelled != null)
+            cancelled.set(true);
+    }
+
+    /**
+     * Returns number of lines, rows and columns with a clue on either side
+     */
+    int getLineCount() {
+        return clueCount;
+    }
+
+    /**
+     * Returns true if a line is a row, false if it is a column
+     */
+    boolean isRowLine(int line) {
+        return clueOrder[line] / size % 2 == 1;
+    }
+
+    /**
+     * Returns line of a row, -1 if the row has no clues
+     */
+    int getRowLine(int row) {
+        return rowLine[row];
+    }
+
+    /**
+     * Returns line of a column, -1 if the column has no clues
+     */
+    int getColLine(int col) {
+        return colLine[col];
+    }
+
+    /**
+     * Returns cell indices of a line in the order of heights of its Permutations
+     */
+    int[] getLineCells(int line) {
+        return clueCellIndices[clueOrder[line]];
+    }
+
+    /**
+     * Returns height at k-th cell of a line in a Permutation
+     * @param permutation - index of a Permutation, one of getLineCandidate(line, i)
+     */
+    int getLineHeight(int line, int permutation, int k) {
+        return permutations.getHeightAt(clues[clueOrder[line]], permutation, k);
+    }
+
+    /**
+     * Returns number of Permutations still possible for a line
+     */
+    int getLineSize(int line) {
+        return lineSize[line];
+    }
+
+    /**
+     * Returns index of i-th Permutation still possible for a line
+     */
+    int getLineCandidate(int line, int i) {
+        return lineCandidates[line][i];
+    }
+
+    /**
+     * Keeps only given Permutation possible for a line and propagates constraints
+     * @param line - a line
+     * @param permutation - index of a Permutation, one of getLineCandidate(line, i)
+     * @return Returns false if it leads to a contradiction
+     */
+    boolean choosePermutation(int line, int permutation) {
+        int[] candidates = lineCandidates[line];
+        for (int i = 0; i < lineSize[line]; i++)
+            if (candidates[i] == permutation) {
+                candidates[i] = candidates[0];
+                candidates[0] = permutation;
+                setLineSize(line, 1);
+                return propagate();
+            }
+        return false;
+    }
+
+    /**
+     * Returns current position of the board undo trail, to be passed to undoTo()
+     */
+    int getTrailMark() {
+        return board.getTrailMark();
+    }
+
+    /**
+     * Returns current position of the line undo trail, to be passed to undoTo()
+     */
+    int getLineTrailMark() {
+        return lineTrailSize;
+    }
+
+    /**
+     * Reverts board and lines to given marks of their undo trails, e.g. after choosePermutation()
+     * @param boardMark - value returned by getTrailMark()
+     * @param lineMark - value returned by getLineTrailMark()
+     */
+    void undoTo(int boardMark, int lineMark) {
+        undo(boardMark, lineMark);
+    }
+
+    /**
+     * Returns board with the last solution
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Copies the last solution into a given array
+     * @param out - array N x N
+     */
+    public void copyBoard(int[][] out) {
+        int[][] cells = board.getBoard();
+        for (int row = 0; row < size; row++)
+            System.arraycopy(cells[row], 0, out[row], 0, size);
+    }
+
+    /*
+    Fills rowLine, colLine and lineCandidates with all Permutations matching clues of each line
+     */
+    private void initializeLines() {
+        Arrays.fill(rowLine, -1);
+        Arrays.fill(colLine, -1);
+
+        for (int line = 0; line < clueCount; line++) {
+            int position = clueOrder[line];
+            int side = position / size;
+            int i = position % size;
+            switch (side) {
+                case 0: colLine[i] = line; break;
+                case 1: rowLine[i] = line; break;
+                case 2: colLine[size - 1 - i] = line; break;
+                case 3: rowLine[size - 1 - i] = line; break;
+            }
+
+            int thisClue = clues[position];
+            int backClue = clues[ClueWithCellIndices.oppositePosition(position, size)];
+            int start = permutations.getCluePairStart(thisClue, backClue);
+            int count = permutations.getPermutationsForCluePairCount(thisClue, backClue);
+
+            if (lineCandidates[line] == null || lineCandidates[line].length < count)
+                lineCandidates[line] = new int[count];
+            for (int k = 0; k < count; k++)
+                lineCandidates[line][k] = start + k;
+            lineSize[line] = count;
+            lineRangeStart[line] = start;
+            lineRangeEnd[line] = start + count;
+        }
+    }
+
+    /*
+    Places given heights, returns false if a height does not fit clues or other given heights
+     */
+    private boolean placeGivens(int[][] givens) {
+        for (int index = 0; index < size * size; index++) {
+            int height = givens[index / size][index % size];
+            if (height == 0)
+                continue;
+
+            if (height < 0 || height > size)
+                throw new IllegalArgumentException();
+            if ((board.getCandidates(index) & Board.bit(height)) == 0) {
+                contradiction = "given height " + height + " does not fit cell " + index;
+                return false;
+            }
+            board.assign(index, height);
+        }
+        return true;
+    }
+
+    /*
+    Limits heights of cells next to clues, see {@link SkyScrapersClueValidator#edgeMask}
+     */
+    private void applyEdgeClues() {
+        for (int position = 0; position < 4 * size; position++) {
+            int clue = clues[position];
+            if (clue == 0)
+                continue;
+
+            int[] cellIndices = clueCellIndices[position];
+            for (int d = 0; d < size; d++)
+                board.restrictCellMask(cellIndices[d], SkyScrapersClueValidator.edgeMask(clue, d, size));
+        }
+    }
+
+    /*
+    Runs the search, adds time of both phases to stats
+     */
+    private boolean timedRun(boolean resume) {
+        if (stats == null)
+            return run(resume);
+
+        long start = System.nanoTime();
+        if (blankFrame >= 0)
+            blankStart = start;
+        long blankPhaseNanos = stats.getBlankPhaseNanos();
+
+        boolean result = run(resume);
+
+        long end = System.nanoTime();
+        if (blankFrame >= 0)
+            stats.addBlankPhaseNanos(end - blankStart);
+        stats.addCluePhaseNanos(end - start - (stats.getBlankPhaseNanos() - blankPhaseNanos));
+        return result;
+    }
+
+    /**
+     * Pick the clue with the fewest Permutations left.
+     * Try 1st Permutation for it, then pick the next clue.
+     * If it fails remove the Permutation and try next Permutation still possible for the clue.
+     * If all Permutations fail return to the previous clue.
+     * Once all clues have their Permutation fill cells left without clues the same way,
+     * starting with the cell with the fewest heights left and trying its heights one by one.
+     *
+     * Only Permutations that also match a clue on the opposite side of the row or column
+     * and survived propagation are tried. Clues with only one Permutation left are skipped.
+     *
+     * Each clue or cell being decided has a frame on the search stack.
+     * Finish when either all options of the first frame failed
+     * or all clues and cells are decided, the stack is kept then to continue to the next solution.
+     *
+     * @param resume - true to reject the solution on the board and continue to the next one
+     * @return true if found right Permutation for all clues and heights for all cells, board holds them.
+     *          false if checked all possible Permutations and failed, board is back where the search started.
+     */
+    private boolean run(boolean resume) {
+
+        boolean descend = !resume;
+        while (true) {
+            if (descend) {
+                //pick the next clue, or cell when all clues have their Permutation
+                int line = selectLine();
+                int var;
+                if (line >= 0) {
+                    var = line;
+                } else {
+                    int index = selectCell();
+                    if (index < 0)
+                        //SUCCESS, all cells are initialized
+                        return true;
+                    var = ~index;
+                }
+                pushFrame(var);
+            } else {
+                //the option tried by the top frame failed
+                if (frameCount == 0)
+                    //checked all possible Permutations and failed
+                    return false;
+
+                int f = frameCount - 1;
+                if (stats != null)
+                    stats.backtrack();
+                if (frameVar[f] >= 0) {
+                    //remove the Permutation and try next one
+                    undo(optionBoardMark[f], optionLineMark[f]);
+                    removeCandidate(frameVar[f], 0);
+                    if (!propagate()) {
+                        popFrame();
+                        continue;
+                    }
+                    optionBoardMark[f] = board.getTrailMark();
+                    optionLineMark[f] = lineTrailSize;
+                } else {
+                    //try next height
+                    undo(frameBoardMark[f], frameLineMark[f]);
+                }
+            }
+
+            //try the next option of the top frame
+            int f = frameCount - 1;
+            if (isStopped()) {
+                while (frameCount > 0)
+                    popFrame();
+                return false;
+            }
+
+            if (frameVar[f] >= 0) {
+                //try the first Permutation still possible
+                if (stats != null) {
+                    stats.node(frameCount);
+                    stats.permutationTried(clueOrder[frameVar[f]]);
+                }
+                setLineSize(frameVar[f], 1);
+                descend = propagate();
+            } else {
+                if (frameHeights[f] == 0) {
+                    //could not find right block
+                    popFrame();
+                    descend = false;
+                    continue;
+                }
+
+                int block = Integer.numberOfTrailingZeros(frameHeights[f]) + 1;
+                frameHeights[f] &= frameHeights[f] - 1;
+                if (stats != null)
+                    stats.node(frameCount);
+                board.assign(~frameVar[f], block);
+                dirtyLines = allLines();
+                descend = propagate();
+            }
+        }
+    }
+
+    /*
+    Starts deciding a line or a cell given by ~index
+     */
+    private void pushFrame(int var) {
+        int f = frameCount++;
+        frameVar[f] = var;
+        frameBoardMark[f] = optionBoardMark[f] = board.getTrailMark();
+        frameLineMark[f] = optionLineMark[f] = lineTrailSize;
+        if (var < 0) {
+            frameHeights[f] = board.getCandidates(~var);
+            if (stats != null && blankFrame < 0) {
+                blankFrame = f;
+                blankStart = System.nanoTime();
+            }
+        }
+    }
+
+    /*
+    Reverts all options of the top frame and removes it
+     */
+    private void popFrame() {
+        int f = --frameCount;
+        undo(frameBoardMark[f], frameLineMark[f]);
+        if (f == blankFrame) {
+            if (stats != null)
+                stats.addBlankPhaseNanos(System.nanoTime() - blankStart);
+            blankFrame = -1;
+        }
+    }
+
+    /*
+    Counts a search node, returns true if the search has to stop.
+    The clock and the interrupt flag are checked at the first node and then once per CHECK_PERIOD nodes.
+     */
+    private boolean isStopped() {
+        if (stopReason != null)
+            return true;
+
+        if (cancelled != null && cancelled.get())
+            stopReason = SolveResult.Outcome.CANCELLED;
+        else if (++nodes > nodeLimit)
+            stopReason = SolveResult.Outcome.TIMED_OUT;
+        else if ((nodes & (CHECK_PERIOD - 1)) == 1) {
+            if (timeoutNanos != Long.MAX_VALUE && System.nanoTime() - deadline > 0)
+                stopReason = SolveResult.Outcome.TIMED_OUT;
+            else if (Thread.currentThread().isInterrupted())
+                stopReason = SolveResult.Outcome.CANCELLED;
+        }
+        return stopReason != null;
+    }
+
+    /**
+     * Returns a line with more than one Permutation left that has the fewest of them.
+     * Of lines with equal number of Permutations returns the one crossing more such lines.
+     * Returns -1 if all lines have a single Permutation.
+     */
+    int selectLine() {
+        int best = -1;
+        int bestDegree = 0;
+        for (int line = 0; line < clueCount; line++) {
+            if (lineSize[line] <= 1 || best >= 0 && lineSize[line] > lineSize[best])
+                continue;
+
+            int degree = lineDegree(line);
+            if (best < 0 || lineSize[line] < lineSize[best] || degree > bestDegree) {
+                best = line;
+                bestDegree = degree;
+            }
+        }
+        return best;
+    }
+
+    /*
+    Returns number of lines with more than one Permutation left crossing a given line
+     */
+    private int lineDegree(int line) {
+        boolean isRow = (clueOrder[line] / size) % 2 == 1;
+        int[] crossing = isRow ? colLine : rowLine;
+        int degree = 0;
+        for (int i = 0; i < size; i++)
+            if (crossing[i] >= 0 && lineSize[crossing[i]] > 1)
+                degree++;
+        return degree;
+    }
+
+    /*
+    Returns an uninitialized cell with the fewest heights left.
+    Of cells with equal number of heights returns the one with more uninitialized cells in its row and column.
+    Returns -1 if all cells are initialized.
+     */
+    private int selectCell() {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        int bestDegree = 0;
+        for (int index = 0; index < size * size; index++) {
+            if (board.getCell(index) != 0)
+                continue;
+
+            int count = Integer.bitCount(board.getCandidates(index));
+            if (count > bestCount)
+                continue;
+
+            int degree = cellDegree(index);
+            if (count < bestCount || degree > bestDegree) {
+                best = index;
+                bestCount = count;
+                bestDegree = degree;
+            }
+        }
+        return best;
+    }
+
+    /*
+    Returns number of uninitialized cells in the row and the column of a given cell
+     */
+    private int cellDegree(int index) {
+        int row = index / size;
+        int col = index % size;
+        int degree = 0;
+        for (int i = 0; i < size; i++) {
+            if (board.getCell(row * size + i) == 0)
+                degree++;
+            if (board.getCell(i * size + col) == 0)
+                degree++;
+        }
+        return degree;
+    }
+
+    /*
+    Propagates constraints until nothing changes.
+    Returns false if a contradiction was found.
+     */
+    private boolean propagate() {
+        do {
+            if (stats != null)
+                stats.propagationRound();
+            while (dirtyLines != 0) {
+                int line = Long.numberOfTrailingZeros(dirtyLines);
+                dirtyLines &= dirtyLines - 1;
+                if (!filterLine(line))
+                    return false;
+            }
+            if (!placeSingles())
+                return false;
+        } while (dirtyLines != 0);
+
+        return true;
+    }
+
+    /*
+    Removes Permutations of a line that do not fit heights still possible for its cells,
+    then restricts cell heights to those used by remaining Permutations.
+    Returns false if no Permutation is left.
+     */
+    private boolean filterLine(int line) {
+        int position = clueOrder[line];
+        int clue = clues[position];
+        int[] cellIndices = clueCellIndices[position];
+        int[] candidates = lineCandidates[line];
+
+        for (int k = 0; k < size; k++) {
+            lineMasks[k] = board.getCandidates(cellIndices[k]);
+            unionMasks[k] = 0;
+        }
+
+        int count = lineSize[line];
+        if (count >= bitSlicedMinCandidates) {
+            count = filterWords(line, clue, candidates, count);
+        } else {
+            byte[] heights = permutations.getHeights(clue);
+            int i = 0;
+            while (i < count) {
+                int permutation = candidates[i];
+                int offset = permutation * size;
+                int k = 0;
+                while (k < size && (lineMasks[k] & Board.bit(heights[offset + k])) != 0)
+                    k++;
+
+                if (k == size) {
+                    for (k = 0; k < size; k++)
+                        unionMasks[k] |= Board.bit(heights[offset + k]);
+                    i++;
+                } else {
+                    //move the Permutation out of possible ones
+                    candidates[i] = candidates[--count];
+                    candidates[count] = permutation;
+                }
+            }
+        }
+
+        setLineSize(line, count);
+        if (count == 0)
+            return false;
+
+        for (int k = 0; k < size; k++)
+            if (board.restrictCellMask(cellIndices[k], unionMasks[k]))
+                markCellDirty(cellIndices[k]);
+
+        return true;
+    }
+
+    /*
+    Filters Permutations of a line like filterLine() does, 64 Permutations at a time:
+    a Permutation fits if for every cell it is in the union of columns of heights possible in the cell.
+    Keeps Permutations in the same order as filtering one at a time, so the search goes the same way.
+    Returns number of Permutations left.
+     */
+    private int filterWords(int line, int clue, int[] candidates, int count) {
+        long[] columns = permutations.getHeightColumns(clue);
+        int words = permutations.getColumnWords(clue);
+        int firstWord = lineRangeStart[line] >>> 6;
+        int wordCount = ((lineRangeEnd[line] + 63) >>> 6) - firstWord;
+        if (fittingWords.length < wordCount) {
+            fittingWords = new long[wordCount];
+            keptWords = new long[wordCount];
+        }
+
+        int full = Board.fullMask(size);
+        for (int w = 0; w < wordCount; w++) {
+            long fitting = -1L;
+            for (int k = 0; k < size && fitting != 0; k++) {
+                int mask = lineMasks[k];
+                if (mask == full)
+                    continue;
+
+                long column = 0;
+                int base = k * size * words + firstWord + w;
+                for (int rest = mask; rest != 0; rest &= rest - 1)
+                    column |= columns[base + Integer.numberOfTrailingZeros(rest) * words];
+                fitting &= column;
+            }
+            fittingWords[w] = fitting;
+            keptWords[w] = 0;
+        }
+
+        int i = 0;
+        while (i < count) {
+            int permutation = candidates[i];
+            int bit = permutation - (firstWord << 6);
+            if ((fittingWords[bit >>> 6] & 1L << bit) != 0) {
+                keptWords[bit >>> 6] |= 1L << bit;
+                i++;
+            } else {
+                //move the Permutation out of possible ones
+                candidates[i] = candidates[--count];
+                candidates[count] = permutation;
+            }
+        }
+
+        //a height is possible in a cell if a Permutation kept has it there
+        for (int k = 0; k < size; k++) {
+            for (int rest = lineMasks[k]; rest != 0; rest &= rest - 1) {
+                int height = Integer.numberOfTrailingZeros(rest) + 1;
+                int base = (k * size + height - 1) * words + firstWord;
+                for (int w = 0; w < wordCount; w++) {
+                    if ((keptWords[w] & columns[base + w]) != 0) {
+                        unionMasks[k] |= Board.bit(height);
+                        break;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /*
+    Places heights in cells that have only one possible height
+    and heights that are possible in only one cell of a row or column.
+    Returns false if a cell has no possible heights or a row or column has no place for a height.
+     */
+    private boolean placeSingles() {
+        int cellCount = size * size;
+
+        for (int index = 0; index < cellCount; index++) {
+            if (board.getCell(index) != 0)
+                continue;
+
+            int candidates = board.getCandidates(index);
+            if (candidates == 0)
+                return false;
+            if ((candidates & (candidates - 1)) == 0) {
+                board.assign(index, Integer.numberOfTrailingZeros(candidates) + 1);
+                dirtyLines = allLines();
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            //row i: cells i*size + k, column i: cells k*size + i
+            if (!placeHiddenSingles(i * size, 1) || !placeHiddenSingles(i, size))
+                return false;
+        }
+
+        return true;
+    }
+
+    /*
+    Places heights possible in only one cell of a row or column given by its first cell and step between cells
+     */
+    private boolean placeHiddenSingles(int first, int step) {
+        int once = 0;
+        int twice = 0;
+        for (int k = 0; k < size; k++) {
+            int candidates = board.getCandidates(first + k * step);
+            twice |= once & candidates;
+            once |= candidates;
+        }
+
+        if (once != Board.fullMask(size))
+            //some height has no place
+            return false;
+
+        for (int singles = once & ~twice; singles != 0; singles &= singles - 1) {
+            int block = Integer.numberOfTrailingZeros(singles) + 1;
+            for (int k = 0; k < size; k++) {
+                int index = first + k * step;
+                if (board.getCell(index) == 0 && (board.getCandidates(index) & Board.bit(block)) != 0) {
+                    board.assign(index, block);
+                    dirtyLines = allLines();
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+    Marks lines going through a cell for filtering
+     */
+    private void markCellDirty(int index) {
+        int row = rowLine[index / size];
+        int col = colLine[index % size];
+        if (row >= 0)
+            dirtyLines |= 1L << row;
+        if (col >= 0)
+            dirtyLines |= 1L << col;
+    }
+
+    private long allLines() {
+        return (1L << clueCount) - 1;
+    }
+
+    /*
+    Removes a Permutation at given index of possible Permutations of a line
+     */
+    private void removeCandidate(int line, int i) {
+        int[] candidates = lineCandidates[line];
+        int last = lineSize[line] - 1;
+        int permutation = candidates[i];
+        candidates[i] = candidates[last];
+        candidates[last] = permutation;
+        setLineSize(line, last);
+    }
+
+    /*
+    Changes number of possible Permutations of a line, records previous number on the undo trail
+     */
+    private void setLineSize(int line, int count) {
+        if (lineSize[line] == count)
+            return;
+
+        if (lineTrailSize + 2 > lineTrail.length)
+            lineTrail = Arrays.copyOf(lineTrail, 2 * lineTrail.length);
+        lineTrail[lineTrailSize++] = line;
+        lineTrail[lineTrailSize++] = lineSize[line];
+        lineSize[line] = count;
+        dirtyLines |= 1L << line;
+    }
+
+    /*
+    Reverts board and lines to given marks of their undo trails
+     */
+    private void undo(int boardMark, int lineMark) {
+        board.undoTo(boardMark);
+        while (lineTrailSize > lineMark) {
+            int previousSize = lineTrail[--lineTrailSize];
+            lineSize[lineTrail[--lineTrailSize]] = previousSize;
+        }
+        dirtyLines = 0;
+    }
+}
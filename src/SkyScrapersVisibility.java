@@ -0,0 +1,147 @@
+/**
+ * Lookup tables for counting skyscrapers visible along a line, for a board size N.
+ *
+ * Walking a line from its clue, all that matters about the cells passed so far is
+ * the highest skyscraper and the number of visible ones. Both are packed into a state:
+ * state = highest * (N + 1) + visible, the line starts in state 0.
+ * Tables give the state after one more skyscraper, and the final visible counts
+ * a partial line can still reach: with highest skyscraper h, all heights above h are still to come,
+ * any 1 to N - h of them can become visible, none if h = N.
+ *
+ * Instances are immutable and shared by all threads.
+ */
+class SkyScrapersVisibility {
+
+    //state of a line before its first cell
+    static final int START = 0;
+
+    private final int size;
+    //state after a skyscraper: next[state * (N + 1) + height]
+    private final byte[] next;
+    //bit c is set if final visible count c can be reached from a state
+    private final int[] reachable;
+    //cell indices for each clue position, ordered in a direction of the clue
+    private final int[][] clueCellIndices;
+
+    /**
+     * @param size - board size N, from 1 to 10
+     */
+    SkyScrapersVisibility(int size) {
+        if (size <= 0 || size > 10)
+            throw new IllegalArgumentException();
+
+        this.size = size;
+        int states = (size + 1) * (size + 1);
+        next = new byte[states * (size + 1)];
+        reachable = new int[states];
+
+        for (int highest = 0; highest <= size; highest++) {
+            for (int visible = 0; visible <= size; visible++) {
+                int state = highest * (size + 1) + visible;
+                for (int height = 1; height <= size; height++) {
+                    next[state * (size + 1) + height] = (byte) (height > highest
+                            ? height * (size + 1) + visible + 1
+                            : state);
+                }
+
+                if (highest == size) {
+                    reachable[state] = 1 << visible;
+                } else {
+                    for (int more = 1; more <= size - highest && visible + more <= size; more++)
+                        reachable[state] |= 1 << (visible + more);
+                }
+            }
+        }
+
+        clueCellIndices = new int[4 * size][];
+        for (int position = 0; position < 4 * size; position++)
+            clueCellIndices[position] = new ClueWithCellIndices(0, position, size).getCellIndices();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns state of a line after one more skyscraper
+     * @param state - state before the skyscraper
+     * @param height - height of the skyscraper, 1 .. N, not used in the line before
+     */
+    int next(int state, int height) {
+        return next[state * (size + 1) + height];
+    }
+
+    /**
+     * Returns number of skyscrapers visible in a state
+     */
+    int visible(int state) {
+        return state % (size + 1);
+    }
+
+    /**
+     * Returns true if a line in a given state can still end with a given number of visible skyscrapers
+     */
+    boolean canReach(int state, int clue) {
+        return (reachable[state] & (1 << clue)) != 0;
+    }
+
+    /**
+     * Returns number of skyscrapers visible along a permutation
+     * @param perm - heights of skyscrapers
+     * @param from - index to look from
+     * @param step - 1 to look forward, -1 to look back
+     */
+    int countVisible(byte[] perm, int from, int step) {
+        int state = START;
+        for (int i = from; i >= 0 && i < perm.length; i += step)
+            state = next(state, perm[i]);
+        return visible(state);
+    }
+
+    /**
+     * Returns number of skyscrapers visible along cells of a board
+     * @param board - board N x N
+     * @param cellIndices - cells in the direction of a clue, see {@link ClueWithCellIndices}
+     */
+    int countVisible(int[][] board, int[] cellIndices) {
+        int state = START;
+        for (int index : cellIndices)
+            state = next(state, board[index / size][index % size]);
+        return visible(state);
+    }
+
+    /**
+     * Returns true if a board is a solution: every row and column has each height from 1 to N once
+     * and every non-zero clue is the number of skyscrapers visible from it
+     * @param clues - array of 4 * N clues, see {@link ClueWithCellIndices}
+     * @param board - board N x N
+     */
+    boolean isSolution(int[] clues, int[][] board) {
+        if (board == null || board.length != size)
+            return false;
+        for (int[] row : board)
+            if (row.length != size)
+                return false;
+
+        int full = Board.fullMask(size);
+        for (int i = 0; i < size; i++) {
+            int rowMask = 0;
+            int colMask = 0;
+            for (int k = 0; k < size; k++) {
+                if (board[i][k] < 1 || board[i][k] > size)
+                    return false;
+                rowMask |= Board.bit(board[i][k]);
+                colMask |= Board.bit(board[k][i]);
+            }
+            if (rowMask != full || colMask != full)
+                return false;
+        }
+
+        for (int position = 0; position < 4 * size; position++) {
+            if (clues[position] != 0
+                    && countVisible(board, clueCellIndices[position]) != clues[position])
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Result of solving a puzzle within limits, see {@link SkyScrapers#solvePuzzle(int[], int, long, java.util.concurrent.TimeUnit, long)}
+ */
+public class SolveResult {
+
+    public enum Outcome {
+        //a solution was found
+        SOLVED,
+        //the puzzle has no solution
+        UNSOLVABLE,
+        //the deadline or the node limit was reached before the search finished
+        TIMED_OUT,
+        //the solving thread was interrupted before the search finished
+        CANCELLED
+    }
+
+    private final Outcome outcome;
+    private final int[][] board;
+    private final String contradiction;
+
+    SolveResult(Outcome outcome, int[][] board) {
+        this(outcome, board, null);
+    }
+
+    SolveResult(Outcome outcome, int[][] board, String contradiction) {
+        this.outcome = outcome;
+        this.board = board;
+        this.contradiction = contradiction;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns a board NxN of skyscrapers heights, null unless the outcome is SOLVED
+     */
+    public int[][] getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns why the clues cannot have a solution if it was found without searching, null otherwise
+     */
+    public String getContradiction() {
+        return contradiction;
+    }
+
+    @Override
+    public String toString() {
+        return "SolveResult{" +
+                "outcome=" + outcome +
+                (contradiction != null ? ", contradiction='" + contradiction + '\'' : "") +
+                '}';
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.Arrays;
+
+/**
+ * Statistics of solving a puzzle.
+ *
+ * Pass an instance to {@link SkyScrapers#solvePuzzle(int[], int, SolveStats)} to have it filled,
+ * solves without an instance do not collect anything.
+ * An instance is reset at the start of each solve, use add() to sum up several solves.
+ *
+ * Search nodes are Permutations tried for a clue and heights tried for a cell without clues.
+ * A backtrack is a node that did not lead to a solution.
+ * Search time is split into the clue phase, looking for Permutations of clues,
+ * and the blank-cell phase, filling cells left without clues.
+ *
+ * Instances are not thread safe.
+ */
+public class SolveStats {
+
+    private int size;
+    private long nodes;
+    private long backtracks;
+    //Permutations tried for each clue position
+    private long[] permutationsTried = new long[0];
+    private long propagationRounds;
+    private int maxDepth;
+
+    private long prepareNanos;
+    private long cluePhaseNanos;
+    private long blankPhaseNanos;
+
+    /**
+     * Returns board size of the last solve
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * Returns number of Permutations tried for a clue
+     * @param position - clue position, see {@link ClueWithCellIndices}
+     */
+    public long getPermutationsTried(int position) {
+        return position < permutationsTried.length ? permutationsTried[position] : 0;
+    }
+
+    /**
+     * Returns number of passes over all constraints made while propagating them
+     */
+    public long getPropagationRounds() {
+        return propagationRounds;
+    }
+
+    /**
+     * Returns the deepest level of the search tree reached, 0 if the puzzle was solved by propagation alone
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns time spent setting up the board and propagating clues before the search
+     */
+    public long getPrepareNanos() {
+        return prepareNanos;
+    }
+
+    public long getCluePhaseNanos() {
+        return cluePhaseNanos;
+    }
+
+    public long getBlankPhaseNanos() {
+        return blankPhaseNanos;
+    }
+
+    /**
+     * Adds counters and times of other stats to these, max depth is the greater of the two
+     */
+    public void add(SolveStats other) {
+        if (other.permutationsTried.length > permutationsTried.length)
+            permutationsTried = Arrays.copyOf(permutationsTried, other.permutationsTried.length);
+        for (int position = 0; position < other.permutationsTried.length; position++)
+            permutationsTried[position] += other.permutationsTried[position];
+
+        size = Math.max(size, other.size);
+        nodes += other.nodes;
+        backtracks += other.backtracks;
+        propagationRounds += other.propagationRounds;
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+        prepareNanos += other.prepareNanos;
+        cluePhaseNanos += other.cluePhaseNanos;
+        blankPhaseNanos += other.blankPhaseNanos;
+    }
+
+    /*
+    Clears all counters for a solve of given board size
+     */
+    void reset(int size) {
+        this.size = size;
+        if (permutationsTried.length != 4 * size)
+            permutationsTried = new long[4 * size];
+        else
+            Arrays.fill(permutationsTried, 0);
+        nodes = 0;
+        backtracks = 0;
+        propagationRounds = 0;
+        maxDepth = 0;
+        prepareNanos = 0;
+        cluePhaseNanos = 0;
+        blankPhaseNanos = 0;
+    }
+
+    void node(int depth) {
+        nodes++;
+        if (depth > maxDepth)
+            maxDepth = depth;
+    }
+
+    void permutationTried(int position) {
+        permutationsTried[position]++;
+    }
+
+    void backtrack() {
+        backtracks++;
+    }
+
+    void propagationRound() {
+        propagationRounds++;
+    }
+
+    void addPrepareNanos(long nanos) {
+        prepareNanos += nanos;
+    }
+
+    void addCluePhaseNanos(long nanos) {
+        cluePhaseNanos += nanos;
+    }
+
+    void addBlankPhaseNanos(long nanos) {
+        blankPhaseNanos += nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SolveStats{size=" + size + ", nodes=" + nodes + ", backtracks=" + backtracks +
+                ", permutationsTried=" + Arrays.toString(permutationsTried) +
+                ", propagationRounds=" + propagationRounds + ", maxDepth=" + maxDepth +
+                ", prepareNanos=" + prepareNanos + ", cluePhaseNanos=" + cluePhaseNanos +
+                ", blankPhaseNanos=" + blankPhaseNanos + "}";
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersBatchSolverTest {
+
+    private static final SkyScrapersBatchSolver solver = new SkyScrapersBatchSolver(3);
+
+    private static final int[][] clues = {
+            { 2, 2, 1, 3, 2, 2, 3, 1, 1, 2, 2, 3, 3, 2, 1, 3 },
+            { 0, 0, 1, 2, 0, 2, 0, 0, 0, 3, 0, 0, 0, 1, 0, 0 },
+            { 1, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, //no solution
+            { 1, 2, 4, 2, 2, 1, 3, 2, 3, 1, 2, 3, 3, 2, 2, 1 }
+    };
+
+    @AfterClass
+    public static void shutdown() {
+        solver.shutdown();
+    }
+
+    @Test
+    public void solveAllKeepsInputOrder() {
+        List<int[]> puzzles = new ArrayList<>();
+        for (int i = 0; i < 250; i++)
+            puzzles.add(clues[i % clues.length]);
+
+        List<int[][]> boards = solver.solveAll(puzzles, 4);
+
+        assertEquals(puzzles.size(), boards.size());
+        for (int i = 0; i < puzzles.size(); i++)
+            assertArrayEquals(SkyScrapers.solvePuzzle(puzzles.get(i)), boards.get(i));
+    }
+
+    @Test
+    public void solveAllWithListener() {
+        final int[][][] boards = new int[100][][];
+        final AtomicInteger count = new AtomicInteger();
+        List<int[]> puzzles = new ArrayList<>();
+        for (int i = 0; i < boards.length; i++)
+            puzzles.add(clues[i % clues.length]);
+
+        solver.solveAll(puzzles, 4, new SkyScrapersBatchSolver.ResultListener() {
+            @Override
+            public void solved(int index, int[] puzzle, int[][] board) {
+                boards[index] = board;
+                count.incrementAndGet();
+            }
+        });
+
+        assertEquals(boards.length, count.get());
+        for (int i = 0; i < boards.length; i++)
+            assertArrayEquals(SkyScrapers.solvePuzzle(clues[i % clues.length]), boards[i]);
+    }
+
+    @Test
+    public void solveAsync() throws Exception {
+        assertArrayEquals(SkyScrapers.solvePuzzle(clues[0]), solver.solveAsync(clues[0], 4).get());
+        assertNull(solver.solveAsync(clues[2], 4).get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void solveAllRethrowsInvalidClues() {
+        solver.solveAll(Arrays.asList(clues[0], new int[]{ 5, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }), 4);
+    }
+}
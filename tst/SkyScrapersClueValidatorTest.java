@@ -0,0 +1,81 @@
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersClueValidatorTest {
+
+    private static String findContradiction(int[] clues, int size) {
+        int[][] clueCellIndices = new int[4 * size][];
+        for (int position = 0; position < 4 * size; position++)
+            clueCellIndices[position] = new ClueWithCellIndices(0, position, size).getCellIndices();
+        return new SkyScrapersClueValidator(new SkyScrapersPermutations(size), clueCellIndices).findContradiction(clues);
+    }
+
+    @Test
+    public void edgeMask() {
+        assertEquals(0b1000, SkyScrapersClueValidator.edgeMask(1, 0, 4));
+        assertEquals(0b1111, SkyScrapersClueValidator.edgeMask(1, 1, 4));
+        assertEquals(0b0100, SkyScrapersClueValidator.edgeMask(4, 2, 4));
+        assertEquals(0b0011, SkyScrapersClueValidator.edgeMask(3, 0, 4));
+        assertEquals(0b0111, SkyScrapersClueValidator.edgeMask(3, 1, 4));
+        assertEquals(0b1111, SkyScrapersClueValidator.edgeMask(3, 2, 4));
+        assertEquals(0b1111, SkyScrapersClueValidator.edgeMask(0, 0, 4));
+    }
+
+    @Test
+    public void acceptsSolvableClues() {
+        assertNull(findContradiction(new int[]{ 2, 2, 1, 3, 2, 2, 3, 1, 1, 2, 2, 3, 3, 2, 1, 3 }, 4));
+        assertNull(findContradiction(new int[16], 4));
+        assertNull(findContradiction(new int[]{ 1, 1, 1, 1 }, 1));
+    }
+
+    @Test
+    public void rejectsOppositeCluesTooHigh() {
+        //clue 3 at the top of column 0 and clue 3 at the bottom of column 0: 3 + 3 > 4 + 1
+        int[] clues = new int[16];
+        clues[0] = 3;
+        clues[11] = 3;
+        assertNotNull(findContradiction(clues, 4));
+    }
+
+    @Test
+    public void rejectsOppositeCluesOne() {
+        int[] clues = new int[16];
+        clues[4] = 1;
+        clues[15] = 1;
+        assertNotNull(findContradiction(clues, 4));
+    }
+
+    @Test
+    public void rejectsCornerClues() {
+        //clue 4 at the top of column 0 needs height 1 in the corner, clue 1 at the left of row 0 needs height 4
+        int[] clues = new int[16];
+        clues[0] = 4;
+        clues[15] = 1;
+        assertNotNull(findContradiction(clues, 4));
+    }
+
+    @Test
+    public void rejectsTwoCluesOneOnOneSide() {
+        int[] clues = new int[16];
+        clues[1] = 1;
+        clues[2] = 1;
+        assertNotNull(findContradiction(clues, 4));
+    }
+
+    @Test
+    public void solverReportsContradiction() {
+        int[] clues = new int[16];
+        clues[1] = 1;
+        clues[2] = 1;
+        SolveResult result = SkyScrapers.solvePuzzle(clues, 4, Long.MAX_VALUE, TimeUnit.NANOSECONDS, Long.MAX_VALUE);
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, result.getOutcome());
+        assertNotNull(result.getContradiction());
+        assertNull(SkyScrapers.solvePuzzle(clues, 4));
+    }
+}
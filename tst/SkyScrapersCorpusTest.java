@@ -0,0 +1,119 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersCorpusTest {
+
+    private static final Path CORPUS = Paths.get("tst", "corpus");
+    //solve times vary between machines and runs, a bucket fails when it is this many times slower than the baseline
+    private static final int TIME_TOLERANCE = 20;
+    //and slower than this, so short buckets do not fail on timer noise
+    private static final long TIME_FLOOR_MICROS = 50_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ratesPuzzles() {
+        //solved by propagation alone
+        int[] clues = {0, 0, 0, 0, 0, 0, 0, 0, 1, 3, 0, 4, 0, 0, 0, 0};
+        assertEquals(SkyScrapersDifficulty.Bucket.TRIVIAL, SkyScrapersDifficulty.rate(clues, 4).getBucket());
+        assertEquals(0, SkyScrapersDifficulty.rate(clues, 4).getScore());
+
+        //needs a short search
+        clues = new int[]{0, 0, 0, 3, 2, 0, 0, 0, 4, 0, 0, 2, 0, 0, 3, 4, 0, 0, 0, 0};
+        SkyScrapersDifficulty medium = SkyScrapersDifficulty.rate(clues, 5);
+        assertEquals(SkyScrapersDifficulty.Bucket.MEDIUM, medium.getBucket());
+        assertEquals(SkyScrapersDifficulty.mediumMaxNodes(5), medium.getScore());
+
+        //needs more search nodes than most generated puzzles of its size
+        clues = new int[]{4, 3, 0, 0, 0, 0, 0, 3, 0, 4, 0, 4, 0, 0, 0, 0, 0, 0, 0, 0};
+        SkyScrapersDifficulty hard = SkyScrapersDifficulty.rate(clues, 5);
+        assertEquals(SkyScrapersDifficulty.Bucket.HARD, hard.getBucket());
+        assertEquals(7, hard.getScore());
+
+        //no solution
+        clues = new int[]{0, 2, 0, 4, 0, 2, 0, 0, 0, 0, 3, 0, 1, 0, 0, 0};
+        assertEquals(SkyScrapersDifficulty.Bucket.UNSOLVABLE, SkyScrapersDifficulty.rate(clues, 4).getBucket());
+    }
+
+    @Test
+    public void generatesSameCorpusFromSameSeed() throws IOException {
+        SkyScrapersCorpus first = SkyScrapersCorpus.generate(4, 3, 7);
+        Path path = folder.getRoot().toPath().resolve(SkyScrapersCorpus.fileName(4));
+        first.write(path);
+        SkyScrapersCorpus second = SkyScrapersCorpus.read(path);
+
+        assertEquals(SkyScrapersCorpus.VERSION, second.getVersion());
+        assertEquals(4, second.getSize());
+        assertEquals(7, second.getSeed());
+        List<SkyScrapersCorpus.Entry> entries = SkyScrapersCorpus.generate(4, 3, 7).getEntries();
+        assertEquals(entries.size(), second.getEntries().size());
+        for (int i = 0; i < entries.size(); i++) {
+            SkyScrapersCorpus.Entry entry = second.getEntries().get(i);
+            assertEquals(entries.get(i).getBucket(), entry.getBucket());
+            assertEquals(entries.get(i).getNodes(), entry.getNodes());
+            assertArrayEquals(entries.get(i).getClues(), entry.getClues());
+            assertEquals(entry.getBucket(), SkyScrapersDifficulty.rate(entry.getClues(), 4).getBucket());
+        }
+        for (SkyScrapersDifficulty.Bucket bucket : SkyScrapersDifficulty.Bucket.values())
+            assertEquals(first.getMicros(bucket), second.getMicros(bucket));
+    }
+
+    @Test
+    public void unsolvablePuzzlesNeedSearch() throws IOException {
+        for (int size = 4; size <= 7; size++) {
+            SkyScrapersCorpus corpus = SkyScrapersCorpus.read(CORPUS.resolve(SkyScrapersCorpus.fileName(size)));
+            assertFalse(corpus.getPuzzles(SkyScrapersDifficulty.Bucket.UNSOLVABLE).isEmpty());
+            for (SkyScrapersCorpus.Entry entry : corpus.getEntries())
+                if (entry.getBucket() == SkyScrapersDifficulty.Bucket.UNSOLVABLE)
+                    assertTrue("N=" + size + " unsolvable puzzle rejected without a search", entry.getNodes() > 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSizesGeneratorCannotHandle() {
+        SkyScrapersCorpus.generate(SkyScrapersGenerator.MAX_SIZE + 1, 1, 7);
+    }
+
+    @Test
+    public void corpusWithinBaseline() throws IOException {
+        for (int size = 4; size <= 7; size++) {
+            SkyScrapersCorpus corpus = SkyScrapersCorpus.read(CORPUS.resolve(SkyScrapersCorpus.fileName(size)));
+            assertEquals(size, corpus.getSize());
+
+            for (SkyScrapersDifficulty.Bucket bucket : SkyScrapersDifficulty.Bucket.values()) {
+                String name = "N=" + size + " " + bucket;
+                List<int[]> puzzles = corpus.getPuzzles(bucket);
+                long nodes = 0;
+                for (int[] clues : puzzles) {
+                    SolveStats stats = new SolveStats();
+                    int[][] board = SkyScrapers.solvePuzzle(clues, size, stats);
+                    if (bucket == SkyScrapersDifficulty.Bucket.UNSOLVABLE)
+                        assertNull(name, board);
+                    else
+                        assertTrue(name, SkyScrapers.isSolution(clues, size, board));
+                    nodes += stats.getNodes();
+                }
+                assertTrue(name + " nodes " + nodes + " above baseline " + corpus.getNodes(bucket),
+                        nodes <= corpus.getNodes(bucket));
+
+                if (!puzzles.isEmpty()) {
+                    long micros = SkyScrapersCorpus.measureMicros(puzzles, size);
+                    long limit = Math.max(TIME_TOLERANCE * corpus.getMicros(bucket), TIME_FLOOR_MICROS);
+                    assertTrue(name + " time us " + micros + " above limit " + limit, micros <= limit);
+                }
+            }
+        }
+    }
+}
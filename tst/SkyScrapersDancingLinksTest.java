@@ -0,0 +1,89 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersDancingLinksTest {
+
+    private static final SkyScrapers.Engine[] ENGINES = {
+            SkyScrapers.Engine.DANCING_LINKS, SkyScrapers.Engine.AUTO, SkyScrapers.Engine.BACKTRACKING };
+
+    /*
+    Returns clues of a random latin square, each clue kept with a given probability
+     */
+    private static int[] randomClues(int size, double keep, Random random) {
+        int[][] board = new int[size][size];
+        int[] rows = shuffled(size, random);
+        int[] cols = shuffled(size, random);
+        int[] heights = shuffled(size, random);
+        for (int row = 0; row < size; row++)
+            for (int col = 0; col < size; col++)
+                board[rows[row]][cols[col]] = heights[(row + col) % size] + 1;
+
+        int[] clues = new int[4 * size];
+        for (int position = 0; position < 4 * size; position++) {
+            if (random.nextDouble() < keep)
+                clues[position] = new ClueWithCellIndices(0, position, size).countVisible(board);
+        }
+        return clues;
+    }
+
+    private static int[] shuffled(int size, Random random) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            int k = random.nextInt(i + 1);
+            values[i] = values[k];
+            values[k] = i;
+        }
+        return values;
+    }
+
+    @Test
+    public void solvesKnownPuzzles() {
+        int[] clues = { 2, 2, 1, 3, 2, 2, 3, 1, 1, 2, 2, 3, 3, 2, 1, 3 };
+        int[][] expected = {
+                { 1, 3, 4, 2 },
+                { 4, 2, 1, 3 },
+                { 3, 4, 2, 1 },
+                { 2, 1, 3, 4 } };
+        for (SkyScrapers.Engine engine : ENGINES)
+            assertArrayEquals(expected, SkyScrapers.solvePuzzle(clues, 4, engine));
+
+        assertArrayEquals(new int[][]{ { 1 } }, SkyScrapers.solvePuzzle(new int[]{ 1, 1, 1, 1 }, 1,
+                SkyScrapers.Engine.DANCING_LINKS));
+    }
+
+    @Test
+    public void solvesPuzzlesWithFewClues() {
+        int[] clues = new int[24];
+        clues[0] = 3;
+        int[][] board = SkyScrapers.solvePuzzle(clues, 6, SkyScrapers.Engine.DANCING_LINKS);
+        assertTrue(SkyScrapers.isSolution(clues, 6, board));
+    }
+
+    @Test
+    public void agreesWithBacktracking() {
+        Random random = new Random(22);
+        for (int size = 2; size <= 6; size++) {
+            for (int round = 0; round < 30; round++) {
+                int[] clues = randomClues(size, 0.3 + 0.7 * random.nextDouble(), random);
+                for (SkyScrapers.Engine engine : ENGINES) {
+                    int[][] board = SkyScrapers.solvePuzzle(clues, size, engine);
+                    assertTrue(engine + " " + size, SkyScrapers.isSolution(clues, size, board));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void returnsNullWithoutSolution() {
+        //propagation alone does not find the contradiction, it takes a search
+        int[] clues = { 3, 0, 3, 0, 0, 3, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0 };
+        for (SkyScrapers.Engine engine : ENGINES)
+            assertNull(SkyScrapers.solvePuzzle(clues, 4, engine));
+    }
+}
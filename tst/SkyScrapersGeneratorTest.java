@@ -0,0 +1,77 @@
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersGeneratorTest {
+
+    @Test
+    public void generatesUniqueMinimalPuzzles() {
+        for (int size = 1; size <= 6; size++) {
+            SkyScrapersGenerator generator = new SkyScrapersGenerator(size);
+            for (long seed = 0; seed < 5; seed++) {
+                int[] clues = generator.generate(seed);
+                assertEquals(4 * size, clues.length);
+                assertEquals(1, SkyScrapers.countSolutions(clues, size, 2));
+                assertTrue(SkyScrapers.isSolution(clues, size, generator.getSolution()));
+
+                //no clue can be removed
+                for (int position = 0; position < 4 * size; position++) {
+                    if (clues[position] == 0)
+                        continue;
+                    int[] fewer = clues.clone();
+                    fewer[position] = 0;
+                    assertEquals(2, SkyScrapers.countSolutions(fewer, size, 2));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void generatesUniquePuzzlesOfLargestSize() {
+        int size = SkyScrapersGenerator.MAX_SIZE;
+        SkyScrapersGenerator generator = new SkyScrapersGenerator(size);
+        for (long seed = 0; seed < 2; seed++) {
+            int[] clues = generator.generate(seed);
+            assertEquals(1, SkyScrapers.countSolutions(clues, size, 2));
+            assertTrue(SkyScrapers.isSolution(clues, size, generator.getSolution()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSizeAboveLimit() {
+        new SkyScrapersGenerator(SkyScrapersGenerator.MAX_SIZE + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void generateAllRejectsSizeAboveLimit() {
+        SkyScrapersGenerator.generateAll(SkyScrapersGenerator.MAX_SIZE + 1, 1, 7, 1);
+    }
+
+    @Test
+    public void sameSeedGivesSamePuzzle() {
+        SkyScrapersGenerator generator = new SkyScrapersGenerator(5);
+        int[] first = generator.generate(42);
+        int[][] solution = generator.getSolution();
+        generator.generate(43);
+
+        assertArrayEquals(first, new SkyScrapersGenerator(5).generate(42));
+        assertArrayEquals(first, generator.generate(42));
+        assertArrayEquals(solution, generator.getSolution());
+    }
+
+    @Test
+    public void generateAllDoesNotDependOnThreads() {
+        List<int[]> single = SkyScrapersGenerator.generateAll(4, 150, 7, 1);
+        List<int[]> several = SkyScrapersGenerator.generateAll(4, 150, 7, 3);
+        assertEquals(150, single.size());
+        for (int i = 0; i < single.size(); i++) {
+            assertArrayEquals(single.get(i), several.get(i));
+            assertArrayEquals(single.get(i), new SkyScrapersGenerator(4).generate(SkyScrapersGenerator.puzzleSeed(7, i)));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersMainTest {
+
+    private static String[] run(String input, String... args) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int code = SkyScrapersMain.run(args, new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)),
+                out, new PrintStream(err, true, "US-ASCII"));
+        return new String[]{ String.valueOf(code), out.toString("US-ASCII"), err.toString("US-ASCII") };
+    }
+
+    @Test
+    public void solvesLinesInOrder() throws Exception {
+        StringBuilder input = new StringBuilder("# 4x4 puzzles\n");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            input.append(i % 2 == 0 ? "2,2,1,3,2,2,3,1,1,2,2,3,3,2,1,3\n" : "1 0 0 1  0 0 0 0 0 0 0 0 0 0 0 0\n\n");
+            expected.append(i % 2 == 0 ? "1,3,4,2,4,2,1,3,3,4,2,1,2,1,3,4\n" : "none\n");
+        }
+
+        String[] result = run(input.toString(), "-t", "3");
+        assertEquals("0", result[0]);
+        assertEquals(expected.toString(), result[1]);
+        assertTrue(result[2].startsWith("puzzles: 500,"));
+    }
+
+    @Test
+    public void reportsInvalidLines() throws Exception {
+        String[] result = run("1,2,3\n5,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0\n1,x\n0,0,0,0\n");
+        assertEquals("error: expected 4 * N clues, got 3\n" +
+                "error: clue 5 is out of range\n" +
+                "error: unexpected character 'x'\n" +
+                "1\n", result[1]);
+    }
+
+    @Test
+    public void rejectsUnknownOptions() throws Exception {
+        assertEquals("2", run("", "-x")[0]);
+        assertEquals("2", run("", "-t")[0]);
+    }
+}
@@ -0,0 +1,78 @@
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersParallelSolverTest {
+
+    private static final SkyScrapersParallelSolver solver = new SkyScrapersParallelSolver(4);
+
+    //sparse puzzles that propagation alone does not solve, so the search is split into tasks
+    private static final int[] SPARSE_7 = {
+            0, 0, 4, 3, 0, 3, 0, 6, 4, 3, 0, 0, 2, 0, 0, 3, 3, 4, 0, 5, 0, 0, 0, 4, 3, 4, 0, 0 };
+    private static final int[] SPARSE_9 = {
+            3, 0, 1, 0, 4, 0, 3, 0, 2, 0, 0, 0, 0, 0, 5, 0, 0, 0,
+            0, 4, 3, 2, 0, 2, 4, 1, 2, 2, 0, 3, 1, 5, 3, 0, 2, 2 };
+
+    @AfterClass
+    public static void shutdown() {
+        solver.shutdown();
+    }
+
+    @Test
+    public void solvePuzzleMatchesSequentialSolver() {
+        int[][] clues = {
+                { 2, 2, 1, 3, 2, 2, 3, 1, 1, 2, 2, 3, 3, 2, 1, 3 },
+                { 0, 0, 0, 2, 2, 0, 0, 0, 0, 6, 3, 0, 0, 4, 0, 0, 0, 0, 4, 4, 0, 3, 0, 0 },
+                { 0, 2, 3, 0, 2, 0, 0, 5, 0, 4, 5, 0, 4, 0, 0, 4, 2, 0, 0, 0, 6, 5, 2, 2, 2, 2, 4, 1 }
+        };
+
+        for (int[] puzzle : clues) {
+            int size = puzzle.length / 4;
+            assertArrayEquals(SkyScrapers.solvePuzzle(puzzle, size), solver.solvePuzzle(puzzle, size));
+        }
+    }
+
+    @Test
+    public void solveSparsePuzzle() {
+        SolveStats stats = new SolveStats();
+        int[][] expected = SkyScrapers.solvePuzzle(SPARSE_7, 7, stats);
+        assertTrue(stats.getNodes() > 0);
+        assertArrayEquals(expected, solver.solvePuzzle(SPARSE_7, 7));
+
+        stats = new SolveStats();
+        SkyScrapers.solvePuzzle(SPARSE_9, 9, stats);
+        assertTrue(stats.getNodes() > 0);
+        assertTrue(SkyScrapers.isSolution(SPARSE_9, 9, solver.solvePuzzle(SPARSE_9, 9)));
+
+        SkyScrapersParallelSolver single = new SkyScrapersParallelSolver(1);
+        try {
+            assertArrayEquals(expected, single.solvePuzzle(SPARSE_7, 7));
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void solvePuzzleCancelled() {
+        assertNull(solver.solvePuzzle(SPARSE_9, 9, new AtomicBoolean(true)));
+
+        //the first solution found cancels remaining tasks
+        AtomicBoolean cancelled = new AtomicBoolean();
+        assertTrue(SkyScrapers.isSolution(SPARSE_9, 9, solver.solvePuzzle(SPARSE_9, 9, cancelled)));
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void solvePuzzleWithoutSolution() {
+        //two clues 1 put both highest skyscrapers in the first row
+        assertNull(solver.solvePuzzle(new int[]{ 1, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, 4));
+        //every row and column is ascending from the left and the top
+        assertNull(solver.solvePuzzle(new int[]{ 4, 4, 4, 4, 0, 0, 0, 0, 0, 0, 0, 0, 4, 4, 4, 4 }, 4));
+    }
+}
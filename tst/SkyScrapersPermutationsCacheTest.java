@@ -0,0 +1,91 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersPermutationsCacheTest {
+
+    @Test
+    public void getReturnsSharedPermutations() {
+        SkyScrapersPermutationsCache cache = new SkyScrapersPermutationsCache(2);
+
+        SkyScrapersPermutations permutations = cache.get(5);
+        assertEquals(5, permutations.getMaxHeight());
+        assertSame(permutations, cache.get(5));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedSize() throws Exception {
+        SkyScrapersPermutationsCache cache = new SkyScrapersPermutationsCache(2);
+
+        cache.get(4);
+        Thread.sleep(5);
+        cache.get(5);
+        Thread.sleep(5);
+        cache.get(4);
+        Thread.sleep(5);
+        cache.get(6);
+
+        assertTrue(cache.contains(4));
+        assertFalse(cache.contains(5));
+        assertTrue(cache.contains(6));
+    }
+
+    @Test
+    public void keepsPinnedSizes() throws Exception {
+        List<Integer> evicted = new ArrayList<>();
+        SkyScrapersPermutationsCache cache = new SkyScrapersPermutationsCache(4, 1, evicted::add);
+
+        for (int size = 1; size <= 4; size++)
+            cache.get(size);
+        cache.get(5);
+        Thread.sleep(5);
+        cache.get(6);
+
+        for (int size = 1; size <= 4; size++)
+            assertTrue(cache.contains(size));
+        assertFalse(cache.contains(5));
+        assertTrue(cache.contains(6));
+        assertEquals(Arrays.asList(5), evicted);
+    }
+
+    @Test
+    public void keepsLargerSizesUsedInTurn() {
+        List<Integer> evicted = new ArrayList<>();
+        SkyScrapersPermutationsCache cache = new SkyScrapersPermutationsCache(4, 2, evicted::add);
+
+        SkyScrapersPermutations five = cache.get(5);
+        SkyScrapersPermutations six = cache.get(6);
+        for (int i = 0; i < 10; i++) {
+            assertSame(five, cache.get(5));
+            assertSame(six, cache.get(6));
+        }
+        assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    public void permutationsForClueAreCalculatedOnce() throws Exception {
+        final SkyScrapersPermutations permutations = new SkyScrapersPermutations(8);
+        Thread[] threads = new Thread[4];
+        final int[] firstHeights = new int[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread(() -> firstHeights[thread] = permutations.getHeightAt(3, 0, 0));
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        //lexicographically first permutation with clue 3 from the front and 1 from the back is 1 7 6 5 4 3 2 8
+        for (int height : firstHeights)
+            assertEquals(1, height);
+        assertEquals(7, permutations.getHeightAt(3, 0, 1));
+        assertEquals(8, permutations.getHeightAt(3, 0, 7));
+    }
+}
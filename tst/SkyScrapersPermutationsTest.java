@@ -16,20 +16,20 @@ public class SkyScrapersPermutationsTest {
 
     private final SkyScrapersPermutations ssp1 = new SkyScrapersPermutations(1);
     private final SkyScrapersPermutations ssp5 = new SkyScrapersPermutations(5);
-    //private final SkyScrapersPermutations ssp10 = new SkyScrapersPermutations(10); //TAKES LONG
+    private final SkyScrapersPermutations ssp10 = new SkyScrapersPermutations(10);
 
     @Test
     public void getClueCount() throws Exception {
         assertEquals(1, ssp1.getClueCount());
         assertEquals(5, ssp5.getClueCount());
-       //assertEquals(10, ssp10.getClueCount());
+        assertEquals(10, ssp10.getClueCount());
     }
 
     @Test
     public void getAllPermutationsCount() throws Exception {
         assertEquals(1, ssp1.getAllPermutationsCount());
         assertEquals(1*2*3*4*5, ssp5.getAllPermutationsCount());
-       //assertEquals(1*2*3*4*5*6*7*8*9*10, ssp10.getAllPermutationsCount());;
+        assertEquals(1*2*3*4*5*6*7*8*9*10, ssp10.getAllPermutationsCount());
     }
 
     @Test
@@ -37,12 +37,82 @@ public class SkyScrapersPermutationsTest {
         assertEquals(1, ssp1.getPermutationsForClueCount(1));
         assertEquals(1, ssp5.getPermutationsForClueCount(5));
         assertEquals(1*2*3*4, ssp5.getPermutationsForClueCount(1));
+        assertEquals(0, ssp5.getPermutationsForClueCount(6));
+        assertEquals(1*2*3*4*5*6*7*8*9, ssp10.getPermutationsForClueCount(1));
     }
 
     @Test
     public void getPermutationsForClueAtIndex() throws Exception {
         assertEquals(Arrays.asList(1), ssp1.getPermutationsForClueAtIndex(1, 0));
         assertEquals(Arrays.asList(1,2,3,4,5), ssp5.getPermutationsForClueAtIndex(5, 0));
+        assertEquals(Arrays.asList(5,1,2,3,4), ssp5.getPermutationsForClueAtIndex(1, 0));
+        assertEquals(Arrays.asList(5,4,3,2,1), ssp5.getPermutationsForClueAtIndex(1, 23));
+        assertNull(ssp5.getPermutationsForClueAtIndex(1, 24));
+    }
+
+    @Test
+    public void getHeightAt() throws Exception {
+        for (int clue = 1; clue <= 5; clue++)
+            for (int index = 0; index < ssp5.getPermutationsForClueCount(clue); index++) {
+                int highest = 0;
+                int visible = 0;
+                for (int position = 0; position < 5; position++) {
+                    int height = ssp5.getHeightAt(clue, index, position);
+                    assertEquals(ssp5.getPermutationsForClueAtIndex(clue, index).get(position).intValue(), height);
+                    if (height > highest) {
+                        highest = height;
+                        visible++;
+                    }
+                }
+                assertEquals(clue, visible);
+            }
+    }
+
+    @Test
+    public void getPermutationsForCluePair() throws Exception {
+        assertEquals(ssp5.getPermutationsForClueCount(2), ssp5.getPermutationsForCluePairCount(2, 0));
+        assertEquals(0, ssp5.getPermutationsForCluePairCount(1, 1));
+        assertEquals(0, ssp5.getPermutationsForCluePairCount(4, 3));
+        assertEquals(1, ssp5.getPermutationsForCluePairCount(5, 1));
+
+        for (int clue = 1; clue <= 5; clue++) {
+            int total = 0;
+            for (int back = 1; back <= 5; back++) {
+                int start = ssp5.getCluePairStart(clue, back);
+                int count = ssp5.getPermutationsForCluePairCount(clue, back);
+                for (int index = start; index < start + count; index++) {
+                    int highest = 0;
+                    int visible = 0;
+                    for (int position = 4; position >= 0; position--) {
+                        int height = ssp5.getHeightAt(clue, index, position);
+                        if (height > highest) {
+                            highest = height;
+                            visible++;
+                        }
+                    }
+                    assertEquals(back, visible);
+                }
+                total += count;
+            }
+            assertEquals(ssp5.getPermutationsForClueCount(clue), total);
+        }
+    }
+
+    @Test
+    public void getHeightColumns() throws Exception {
+        for (int clue = 1; clue <= 5; clue++) {
+            long[] columns = ssp5.getHeightColumns(clue);
+            int words = ssp5.getColumnWords(clue);
+            for (int index = 0; index < ssp5.getPermutationsForClueCount(clue); index++) {
+                for (int position = 0; position < 5; position++) {
+                    for (int height = 1; height <= 5; height++) {
+                        long word = columns[(position * 5 + height - 1) * words + index / 64];
+                        boolean set = (word & 1L << index) != 0;
+                        assertEquals(ssp5.getHeightAt(clue, index, position) == height, set);
+                    }
+                }
+            }
+        }
     }
 
 }
\ No newline at end of file
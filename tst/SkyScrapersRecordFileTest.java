@@ -0,0 +1,101 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersRecordFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final int[][] clues = {
+            { 2, 2, 1, 3, 2, 2, 3, 1, 1, 2, 2, 3, 3, 2, 1, 3 },
+            { 0, 0, 1, 2, 0, 2, 0, 0, 0, 3, 0, 0, 0, 1, 0, 0 },
+            { 1, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, //no solution
+            { 1, 2, 4, 2, 2, 1, 3, 2, 3, 1, 2, 3, 3, 2, 2, 1 }
+    };
+
+    @Test
+    public void recordSize() {
+        //4 clues per 2 bytes, cells of 1, 2, 3 and 4 bits
+        assertEquals(2 + 1, SkyScrapersRecordFormat.recordSize(1));
+        assertEquals(6 + 3, SkyScrapersRecordFormat.recordSize(3));
+        assertEquals(8 + 6, SkyScrapersRecordFormat.recordSize(4));
+        assertEquals(18 + 41, SkyScrapersRecordFormat.recordSize(9));
+    }
+
+    @Test
+    public void recordRoundTrip() {
+        for (int size = 1; size <= SkyScrapers.MAX_SIZE; size++) {
+            int[] puzzle = new int[4 * size];
+            int[][] board = new int[size][size];
+            for (int i = 0; i < puzzle.length; i++)
+                puzzle[i] = i % (size + 1);
+            for (int row = 0; row < size; row++)
+                for (int col = 0; col < size; col++)
+                    board[row][col] = (row + col) % size + 1;
+
+            ByteBuffer buffer = ByteBuffer.allocate(3 + 2 * SkyScrapersRecordFormat.recordSize(size));
+            SkyScrapersRecordFormat.writeRecord(buffer, 3, size, puzzle, board);
+
+            int[] readClues = new int[4 * size];
+            int[][] readBoard = new int[size][size];
+            SkyScrapersRecordFormat.readClues(buffer, 3, size, readClues);
+            assertTrue(SkyScrapersRecordFormat.readSolution(buffer, 3, size, readBoard));
+            assertArrayEquals(puzzle, readClues);
+            assertArrayEquals(board, readBoard);
+
+            SkyScrapersRecordFormat.writeSolution(buffer, 3, size, null);
+            assertFalse(SkyScrapersRecordFormat.readSolution(buffer, 3, size, readBoard));
+        }
+    }
+
+    @Test
+    public void writeAndSolveFile() throws IOException {
+        Path puzzles = folder.newFile("puzzles.bin").toPath();
+        Path solutions = folder.newFile("solutions.bin").toPath();
+
+        try (SkyScrapersRecordWriter writer = new SkyScrapersRecordWriter(puzzles, 4)) {
+            for (int i = 0; i < 10000; i++)
+                writer.write(clues[i % clues.length], null);
+        }
+
+        SkyScrapersBatchSolver solver = new SkyScrapersBatchSolver(2);
+        try {
+            assertEquals(10000, solver.solveFile(puzzles, solutions));
+        } finally {
+            solver.shutdown();
+        }
+
+        try (SkyScrapersRecordReader reader = new SkyScrapersRecordReader(solutions)) {
+            assertEquals(4, reader.getSize());
+            assertEquals(10000, reader.getRecordCount());
+
+            int[] readClues = new int[16];
+            int[][] board = new int[4][4];
+            for (int i = 0; i < 10000; i++) {
+                reader.readClues(i, readClues);
+                assertArrayEquals(clues[i % clues.length], readClues);
+
+                int[][] expected = SkyScrapers.solvePuzzle(readClues);
+                assertEquals(expected != null, reader.readSolution(i, board));
+                if (expected != null)
+                    assertArrayEquals(expected, board);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Path path = folder.newFile("empty.bin").toPath();
+        new SkyScrapersRecordReader(path).close();
+    }
+}
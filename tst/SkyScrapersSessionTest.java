@@ -0,0 +1,69 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersSessionTest {
+
+    private static final int[] clues = { 3, 2, 2, 3, 2, 1,
+            1, 2, 3, 3, 2, 2,
+            5, 1, 2, 2, 4, 3,
+            3, 2, 1, 2, 2, 4 };
+
+    private static final int[][] outcome = {
+            { 2, 1, 4, 3, 5, 6 },
+            { 1, 6, 3, 2, 4, 5 },
+            { 4, 3, 6, 5, 1, 2 },
+            { 6, 5, 2, 1, 3, 4 },
+            { 5, 4, 1, 6, 2, 3 },
+            { 3, 2, 5, 4, 6, 1 } };
+
+    @Test
+    public void enteringCluesOneByOne() {
+        SkyScrapersSession session = new SkyScrapersSession(6);
+        assertEquals(SolveResult.Outcome.SOLVED, session.getResult().getOutcome());
+
+        SolveResult result = null;
+        for (int position = 0; position < clues.length; position++)
+            result = session.setClue(position, clues[position]);
+
+        assertEquals(SolveResult.Outcome.SOLVED, result.getOutcome());
+        assertArrayEquals(outcome, result.getBoard());
+        assertArrayEquals(clues, session.getClues());
+    }
+
+    @Test
+    public void changingClueReSolves() {
+        SkyScrapersSession session = new SkyScrapersSession(clues, 6);
+        assertArrayEquals(outcome, session.getResult().getBoard());
+
+        //removing a clue keeps the solution
+        SolveResult result = session.setClue(0, 0);
+        assertArrayEquals(outcome, result.getBoard());
+
+        //clue 1 does not fit the other clues
+        result = session.setClue(1, 1);
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, result.getOutcome());
+
+        result = session.setClue(1, 2);
+        assertEquals(SolveResult.Outcome.SOLVED, result.getOutcome());
+        assertEquals(0, session.getClue(0));
+
+        result = session.setClue(0, 3);
+        assertArrayEquals(outcome, result.getBoard());
+    }
+
+    @Test
+    public void resultCannotChangeSession() {
+        SkyScrapersSession session = new SkyScrapersSession(clues, 6);
+        session.getResult().getBoard()[0][0] = 0;
+        assertArrayEquals(outcome, session.setClue(0, 0).getBoard());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidClue() {
+        new SkyScrapersSession(6).setClue(0, 7);
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersSolutionCacheTest {
+
+    private static final int[] clues = { 3, 2, 2, 3, 2, 1,
+            1, 2, 3, 3, 2, 2,
+            5, 1, 2, 2, 4, 3,
+            3, 2, 1, 2, 2, 4 };
+
+    @Test
+    public void transformPositionKeepsCellsSeen() {
+        //rotating clockwise: top column 0 looks at the right row 0 afterwards
+        assertEquals(6, ClueWithCellIndices.transformPosition(0, 6, 1, false));
+        //mirroring: top column 0 becomes top column 5, right row 0 becomes left row 0
+        assertEquals(5, ClueWithCellIndices.transformPosition(0, 6, 0, true));
+        assertEquals(23, ClueWithCellIndices.transformPosition(6, 6, 0, true));
+        //four rotations or two mirrors give the same position
+        for (int position = 0; position < 24; position++) {
+            assertEquals(position, ClueWithCellIndices.transformPosition(position, 6, 4, false));
+            int mirrored = ClueWithCellIndices.transformPosition(position, 6, 0, true);
+            assertEquals(position, ClueWithCellIndices.transformPosition(mirrored, 6, 0, true));
+        }
+    }
+
+    @Test
+    public void rotatedAndMirroredPuzzlesHitTheCache() {
+        SkyScrapersSolutionCache cache = new SkyScrapersSolutionCache(100);
+
+        for (int rotations = 0; rotations < 4; rotations++) {
+            for (boolean mirror : new boolean[]{ false, true }) {
+                int[] transformed = new int[clues.length];
+                for (int position = 0; position < clues.length; position++)
+                    transformed[ClueWithCellIndices.transformPosition(position, 6, rotations, mirror)] = clues[position];
+
+                assertArrayEquals(SkyScrapers.solvePuzzle(transformed, 6), cache.solvePuzzle(transformed, 6));
+            }
+        }
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(7, cache.getHitCount());
+        assertEquals(7 / 8.0, cache.getHitRate(), 1e-9);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void cachesPuzzlesWithoutSolution() {
+        SkyScrapersSolutionCache cache = new SkyScrapersSolutionCache(100);
+        int[] noSolution = { 1, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+
+        assertNull(cache.solvePuzzle(noSolution, 4));
+        assertNull(cache.solvePuzzle(noSolution, 4));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void evictsWhenFull() {
+        SkyScrapersSolutionCache cache = new SkyScrapersSolutionCache(16);
+        for (int clue = 1; clue <= 5; clue++) {
+            for (int position = 0; position < 20; position++) {
+                int[] puzzle = new int[20];
+                puzzle[position] = clue;
+                cache.solvePuzzle(puzzle, 5);
+            }
+        }
+        assertTrue(cache.size() <= 16);
+    }
+}
@@ -0,0 +1,75 @@
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersSolutionsTest {
+
+    @Test
+    public void countsLatinSquares() {
+        //number of Latin squares of order 1 to 5
+        long[] latinSquares = { 1, 1, 2, 12, 576, 161280 };
+        for (int size = 1; size <= 5; size++)
+            assertEquals(latinSquares[size], SkyScrapers.countSolutions(new int[4 * size], size, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void countStopsAtLimit() {
+        assertEquals(10, SkyScrapers.countSolutions(new int[4 * 6], 6, 10));
+        assertEquals(1, SkyScrapers.countSolutions(new int[]{ 2, 2, 1, 3, 2, 2, 3, 1, 1, 2, 2, 3, 3, 2, 1, 3 }, 4, 2));
+        assertEquals(0, SkyScrapers.countSolutions(new int[]{ 1, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, 4, 2));
+    }
+
+    @Test
+    public void streamsEverySolutionOnce() {
+        List<int[][]> squares = SkyScrapers.solutions(new int[16], 4).collect(Collectors.toList());
+        assertEquals(576, squares.size());
+
+        Set<String> distinct = new HashSet<>();
+        for (int[][] square : squares)
+            distinct.add(java.util.Arrays.deepToString(square));
+        assertEquals(576, distinct.size());
+
+        //solutions of a puzzle are the Latin squares matching its clues
+        int[] clues = { 0, 0, 1, 2, 0, 2, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0 };
+        long matching = squares.stream().filter(square -> matches(square, clues)).count();
+        assertTrue(matching > 1);
+        assertEquals(matching, SkyScrapers.solutions(clues, 4).count());
+        assertEquals(matching, SkyScrapers.countSolutions(clues, 4, Long.MAX_VALUE));
+        assertTrue(SkyScrapers.solutions(clues, 4).allMatch(square -> matches(square, clues)));
+    }
+
+    @Test
+    public void streamIsLazy() {
+        //order 9 has too many Latin squares to find them all
+        assertEquals(3, SkyScrapers.solutions(new int[4 * 9], 9).limit(3).count());
+        assertEquals(0, SkyScrapers.solutions(new int[]{ 1, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, 4).count());
+    }
+
+    private static boolean matches(int[][] square, int[] clues) {
+        int size = square.length;
+        for (int position = 0; position < 4 * size; position++) {
+            if (clues[position] == 0)
+                continue;
+
+            int visible = 0;
+            int highest = 0;
+            for (int index : new ClueWithCellIndices(0, position, size).getCellIndices()) {
+                if (square[index / size][index % size] > highest) {
+                    highest = square[index / size][index % size];
+                    visible++;
+                }
+            }
+            if (visible != clues[position])
+                return false;
+        }
+        return true;
+    }
+}
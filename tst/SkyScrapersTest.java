@@ -1,5 +1,7 @@
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.*;
 
 /**
@@ -54,6 +56,252 @@ public class SkyScrapersTest {
         assertEquals (result, outcomes[2]);
     }
 
+    private static int clues6[][] = {
+            { 3, 2, 2, 3, 2, 1,
+                    1, 2, 3, 3, 2, 2,
+                    5, 1, 2, 2, 4, 3,
+                    3, 2, 1, 2, 2, 4 },
+            { 0, 0, 0, 2, 2, 0,
+                    0, 0, 0, 6, 3, 0,
+                    0, 4, 0, 0, 0, 0,
+                    4, 4, 0, 3, 0, 0 }
+    };
+
+    private static int outcomes6[][][] = {
+            { { 2, 1, 4, 3, 5, 6 },
+                    { 1, 6, 3, 2, 4, 5 },
+                    { 4, 3, 6, 5, 1, 2 },
+                    { 6, 5, 2, 1, 3, 4 },
+                    { 5, 4, 1, 6, 2, 3 },
+                    { 3, 2, 5, 4, 6, 1 } },
+            { { 5, 6, 1, 4, 3, 2 },
+                    { 4, 1, 3, 2, 6, 5 },
+                    { 2, 3, 6, 1, 5, 4 },
+                    { 6, 5, 4, 3, 2, 1 },
+                    { 1, 2, 5, 6, 4, 3 },
+                    { 3, 4, 2, 5, 1, 6 } }
+    };
+
+    private static int clues7[][] = {
+            { 7, 0, 0, 0, 2, 2, 3,
+                    0, 0, 3, 0, 0, 0, 0,
+                    3, 0, 3, 0, 0, 5, 0,
+                    0, 0, 0, 0, 5, 0, 4 },
+            { 0, 2, 3, 0, 2, 0, 0,
+                    5, 0, 4, 5, 0, 4, 0,
+                    0, 4, 2, 0, 0, 0, 6,
+                    5, 2, 2, 2, 2, 4, 1 }
+    };
+
+    private static int outcomes7[][][] = {
+            { { 1, 5, 6, 7, 4, 3, 2 },
+                    { 2, 7, 4, 5, 3, 1, 6 },
+                    { 3, 4, 5, 6, 7, 2, 1 },
+                    { 4, 6, 3, 1, 2, 7, 5 },
+                    { 5, 3, 1, 2, 6, 4, 7 },
+                    { 6, 2, 7, 3, 1, 5, 4 },
+                    { 7, 1, 2, 4, 5, 6, 3 } },
+            { { 7, 6, 2, 1, 5, 4, 3 },
+                    { 1, 3, 5, 4, 2, 7, 6 },
+                    { 6, 5, 4, 7, 3, 2, 1 },
+                    { 5, 1, 7, 6, 4, 3, 2 },
+                    { 4, 2, 1, 3, 7, 6, 5 },
+                    { 3, 7, 6, 2, 1, 5, 4 },
+                    { 2, 4, 3, 5, 6, 1, 7 } }
+    };
+
+    @Test
+    public void testSolvePuzzle6x6_1 () {
+        int[][] result = SkyScrapers.solvePuzzle (clues6[0], 6);
+        assertArrayEquals (outcomes6[0], result);
+    }
+
+    @Test
+    public void testSolvePuzzle6x6_2 () {
+        int[][] result = SkyScrapers.solvePuzzle (clues6[1], 6);
+        assertArrayEquals (outcomes6[1], result);
+    }
+
+    @Test
+    public void testSolvePuzzle7x7_1 () {
+        int[][] result = SkyScrapers.solvePuzzle (clues7[0], 7);
+        assertArrayEquals (outcomes7[0], result);
+    }
+
+    @Test
+    public void testSolvePuzzle7x7_2 () {
+        int[][] result = SkyScrapers.solvePuzzle (clues7[1], 7);
+        assertArrayEquals (outcomes7[1], result);
+    }
+
+    @Test
+    public void testSolveStats () {
+        //few clues, so the search has to guess
+        int[] sparseClues = new int[4 * 5];
+        sparseClues[0] = 2;
+        sparseClues[7] = 3;
+
+        SolveStats stats = new SolveStats();
+        assertNotNull (SkyScrapers.solvePuzzle (sparseClues, 5, stats));
+
+        assertEquals (5, stats.getSize());
+        assertTrue (stats.getPropagationRounds() > 0);
+        assertTrue (stats.getNodes() > 0);
+        //nodes that did not backtrack form the path to the solution
+        assertEquals (stats.getMaxDepth(), stats.getNodes() - stats.getBacktracks());
+        assertTrue (stats.getPermutationsTried(0) > 0);
+        assertTrue (stats.getPermutationsTried(7) > 0);
+        assertEquals (0, stats.getPermutationsTried(1));
+
+        //stats are reset by each solve
+        long nodes = stats.getNodes();
+        SkyScrapers.solvePuzzle (sparseClues, 5, stats);
+        assertEquals (nodes, stats.getNodes());
+
+        //a puzzle solved by propagation alone needs no search
+        SkyScrapers.solvePuzzle (clues7[1], 7, stats);
+        assertEquals (0, stats.getNodes());
+        assertEquals (0, stats.getMaxDepth());
+    }
+
+    @Test
+    public void testSolvePuzzleWithLimits () {
+        SolveResult result = SkyScrapers.solvePuzzle (clues6[0], 6, 10, TimeUnit.SECONDS, Long.MAX_VALUE);
+        assertEquals (SolveResult.Outcome.SOLVED, result.getOutcome());
+        assertArrayEquals (outcomes6[0], result.getBoard());
+
+        int[] noSolution = { 1, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+        result = SkyScrapers.solvePuzzle (noSolution, 4, 10, TimeUnit.SECONDS, Long.MAX_VALUE);
+        assertEquals (SolveResult.Outcome.UNSOLVABLE, result.getOutcome());
+        assertNull (result.getBoard());
+
+        //few clues, so the search has to guess
+        int[] sparseClues = new int[4 * 7];
+        sparseClues[0] = 2;
+        assertEquals (SolveResult.Outcome.TIMED_OUT,
+                SkyScrapers.solvePuzzle (sparseClues, 7, Long.MAX_VALUE, TimeUnit.NANOSECONDS, 1).getOutcome());
+        assertEquals (SolveResult.Outcome.TIMED_OUT,
+                SkyScrapers.solvePuzzle (sparseClues, 7, 0, TimeUnit.NANOSECONDS, Long.MAX_VALUE).getOutcome());
+
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals (SolveResult.Outcome.CANCELLED,
+                    SkyScrapers.solvePuzzle (sparseClues, 7, 10, TimeUnit.SECONDS, Long.MAX_VALUE).getOutcome());
+        } finally {
+            assertTrue (Thread.interrupted());
+        }
+
+        //limits do not stay with the solver
+        assertNotNull (SkyScrapers.solvePuzzle (sparseClues, 7));
+    }
+
+    @Test
+    public void testWordFilterMatchesScalarFilter () {
+        //filtering lines 64 Permutations at a time goes the same way as one at a time
+        int[][] puzzles = { clues6[0], clues6[1], clues7[0], clues7[1] };
+        int[] sizes = { 6, 6, 7, 7 };
+        int[] sparseClues = new int[4 * 7];
+        sparseClues[0] = 2;
+        sparseClues[9] = 3;
+        sparseClues[20] = 4;
+
+        for (int p = 0; p <= puzzles.length; p++) {
+            int[] puzzle = p < puzzles.length ? puzzles[p] : sparseClues;
+            int size = p < puzzles.length ? sizes[p] : 7;
+            int[][][] boards = new int[2][size][size];
+            long[] nodes = new long[2];
+            for (int way = 0; way < 2; way++) {
+                SkyScrapersSolver solver = new SkyScrapersSolver (SkyScrapers.getPermutations (size));
+                SolveStats stats = new SolveStats ();
+                solver.setStats (stats);
+                solver.setBitSlicedMinCandidates (way == 0 ? Integer.MAX_VALUE : 0);
+                assertTrue (solver.solve (puzzle));
+                solver.copyBoard (boards[way]);
+                nodes[way] = stats.getNodes ();
+            }
+            assertArrayEquals (boards[0], boards[1]);
+            assertEquals (nodes[0], nodes[1]);
+        }
+    }
+
+    @Test
+    public void testShortCluesRejected () {
+        //every entry point rejects a clue array shorter than 4 * N the same way
+        int[] clues = new int[4 * 4 - 1];
+        Runnable[] calls = {
+                () -> SkyScrapers.solvePuzzle (clues, 4),
+                () -> SkyScrapers.countSolutions (clues, 4, 2),
+                () -> SkyScrapers.solvePuzzle (clues, 4, 1, TimeUnit.SECONDS, Long.MAX_VALUE),
+                () -> new SkyScrapersSession (clues, 4)
+        };
+        for (Runnable call : calls) {
+            try {
+                call.run ();
+                fail ();
+            } catch (IllegalArgumentException e) {
+                assertNotNull (e.getMessage ());
+            }
+        }
+    }
+
+    @Test
+    public void testSolvePuzzleWithoutClues () {
+        //any Latin square is a solution
+        for (int size = 1; size <= 9; size++) {
+            int[][] result = SkyScrapers.solvePuzzle (new int[4 * size], size);
+            Board board = new Board (size);
+            for (int index = 0; index < size * size; index++) {
+                int height = result[index / size][index % size];
+                assertTrue (height >= 1 && height <= size);
+                assertTrue (board.isUniqueInRowAndCol (index, height));
+                board.assign (index, height);
+            }
+        }
+    }
+
+    @Test
+    public void testSolvePuzzleWithGivens () {
+        //the 6x6 solution given on the diagonal, with half of the clues
+        int[] halfClues = clues6[0].clone();
+        for (int position = 0; position < halfClues.length; position += 2)
+            halfClues[position] = 0;
+        int[][] givens = new int[6][6];
+        for (int i = 0; i < 6; i++)
+            givens[i][i] = outcomes6[0][i][i];
+        int[][] result = SkyScrapers.solvePuzzle (halfClues, givens, 6);
+        for (int i = 0; i < 6; i++)
+            assertEquals (givens[i][i], result[i][i]);
+        for (int position = 0; position < halfClues.length; position++)
+            assertTrue (new ClueWithCellIndices (halfClues[position], position, 6).isSatisfiedBy (result));
+
+        //givens alone, any Latin square keeping them is a solution
+        result = SkyScrapers.solvePuzzle (new int[24], givens, 6);
+        for (int i = 0; i < 6; i++)
+            assertEquals (givens[i][i], result[i][i]);
+
+        //clue 1 at the top of column 0 needs height 6 in the corner
+        int[] clue1 = new int[24];
+        clue1[0] = 1;
+        givens = new int[6][6];
+        givens[0][0] = 5;
+        assertNull (SkyScrapers.solvePuzzle (clue1, givens, 6));
+
+        //the same height twice in a row
+        givens = new int[6][6];
+        givens[2][1] = 3;
+        givens[2][4] = 3;
+        assertNull (SkyScrapers.solvePuzzle (new int[24], givens, 6));
+    }
+
+    @Test
+    public void testClueCellIndices() {
+        assertArrayEquals(new int[]{2, 6, 10, 14}, new ClueWithCellIndices(1, 2, 4).getCellIndices());
+        assertArrayEquals(new int[]{7, 6, 5, 4}, new ClueWithCellIndices(1, 5, 4).getCellIndices());
+        assertArrayEquals(new int[]{14, 10, 6, 2}, new ClueWithCellIndices(1, 9, 4).getCellIndices());
+        assertArrayEquals(new int[]{8, 9, 10, 11}, new ClueWithCellIndices(1, 13, 4).getCellIndices());
+        assertArrayEquals(new int[]{30, 31, 32, 33, 34, 35}, new ClueWithCellIndices(1, 18, 6).getCellIndices());
+    }
+
     @Test
     public void testIsUniqueInRowAndCol() {
         Board board = new Board(outcomes[0]);
@@ -61,4 +309,55 @@ public class SkyScrapersTest {
         assertTrue(board.isUniqueInRowAndCol(7, 3));
         assertFalse(board.isUniqueInRowAndCol(0, 3));
     }
+
+    @Test
+    public void testGetCandidates() {
+        Board board = new Board(4);
+        assertEquals(0b1111, board.getCandidates(5));
+
+        board.setCell(4, 2);  //row 1
+        board.setCell(13, 4); //col 1
+        assertEquals(0b0101, board.getCandidates(5));
+        assertEquals(0b0010, board.getCandidates(4));
+        assertFalse(board.isUniqueInRowAndCol(5, 2));
+        assertTrue(board.isUniqueInRowAndCol(4, 2));
+
+        board.setCellMask(5, 0b0100);
+        assertEquals(0b0100, board.getCandidates(5));
+
+        board.clearCell(4);
+        assertEquals(0b0100, board.getCandidates(5));
+        assertTrue(board.isUniqueInRowAndCol(5, 2));
+        assertFalse(board.allCellsInitialized());
+    }
+
+    @Test
+    public void testAssignAndUndo() {
+        Board board = new Board(4);
+        board.assign(0, 1);
+        int mark = board.getTrailMark();
+        board.assign(5, 2);
+        board.assign(10, 3);
+        assertEquals(0b1100, board.getCandidates(1));
+
+        board.undoTo(mark);
+        assertEquals(1, board.getCell(0));
+        assertEquals(0, board.getCell(5));
+        assertEquals(0, board.getCell(10));
+        assertEquals(0b1110, board.getCandidates(1));
+
+        board.undoTo(0);
+        assertEquals(0b1111, board.getCandidates(1));
+
+        board.assign(0, 4);
+        mark = board.getTrailMark();
+        assertTrue(board.restrictCellMask(1, 0b0011));
+        assertFalse(board.restrictCellMask(1, 0b0111));
+        board.assign(1, 2);
+        assertEquals(0b0101, board.getCandidates(2) & board.getCellMask(2));
+
+        board.undoTo(mark);
+        assertEquals(0b1111, board.getCellMask(1));
+        assertEquals(0b0111, board.getCandidates(1));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created on 2026-10-18
+ */
+public class SkyScrapersVisibilityTest {
+
+    private static int bruteForceVisible(byte[] perm) {
+        int highest = 0;
+        int visible = 0;
+        for (byte height : perm) {
+            if (height > highest) {
+                highest = height;
+                visible++;
+            }
+        }
+        return visible;
+    }
+
+    private static void shuffle(byte[] perm, Random random) {
+        for (int i = perm.length - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            byte tmp = perm[i];
+            perm[i] = perm[k];
+            perm[k] = tmp;
+        }
+    }
+
+    @Test
+    public void nextAndVisible() {
+        SkyScrapersVisibility visibility = new SkyScrapersVisibility(4);
+        int state = SkyScrapersVisibility.START;
+        assertEquals(0, visibility.visible(state));
+
+        state = visibility.next(state, 2);
+        assertEquals(1, visibility.visible(state));
+        state = visibility.next(state, 1);
+        assertEquals(1, visibility.visible(state));
+        state = visibility.next(state, 4);
+        assertEquals(2, visibility.visible(state));
+        state = visibility.next(state, 3);
+        assertEquals(2, visibility.visible(state));
+    }
+
+    @Test
+    public void canReach() {
+        SkyScrapersVisibility visibility = new SkyScrapersVisibility(4);
+        assertTrue(visibility.canReach(SkyScrapersVisibility.START, 1));
+        assertTrue(visibility.canReach(SkyScrapersVisibility.START, 4));
+
+        int state = visibility.next(SkyScrapersVisibility.START, 3);
+        assertTrue(visibility.canReach(state, 2));
+        assertFalse(visibility.canReach(state, 1));
+        assertFalse(visibility.canReach(state, 3));
+
+        state = visibility.next(SkyScrapersVisibility.START, 4);
+        assertTrue(visibility.canReach(state, 1));
+        assertFalse(visibility.canReach(state, 2));
+    }
+
+    @Test
+    public void countVisibleMatchesBruteForce() {
+        Random random = new Random(21);
+        for (int size = 1; size <= SkyScrapers.MAX_SIZE; size++) {
+            SkyScrapersVisibility visibility = new SkyScrapersVisibility(size);
+            byte[] perm = new byte[size];
+            byte[] reversed = new byte[size];
+            for (int i = 0; i < size; i++)
+                perm[i] = (byte) (i + 1);
+
+            for (int round = 0; round < 200; round++) {
+                shuffle(perm, random);
+                for (int i = 0; i < size; i++)
+                    reversed[i] = perm[size - 1 - i];
+
+                assertEquals(bruteForceVisible(perm), visibility.countVisible(perm, 0, 1));
+                assertEquals(bruteForceVisible(reversed), visibility.countVisible(perm, size - 1, -1));
+            }
+        }
+    }
+
+    @Test
+    public void isSolution() {
+        int[] clues = { 2, 2, 1, 3, 2, 2, 3, 1, 1, 2, 2, 3, 3, 2, 1, 3 };
+        int[][] board = SkyScrapers.solvePuzzle(clues, 4);
+        assertTrue(SkyScrapers.isSolution(clues, 4, board));
+        assertTrue(SkyScrapers.isSolution(new int[16], 4, board));
+
+        //swapping two rows keeps a latin square but breaks column clues
+        int[][] swapped = { board[1], board[0], board[2], board[3] };
+        assertFalse(SkyScrapers.isSolution(clues, 4, swapped));
+
+        int[][] repeated = { board[0].clone(), board[1], board[2], board[3] };
+        repeated[0][0] = repeated[0][1];
+        assertFalse(SkyScrapers.isSolution(new int[16], 4, repeated));
+
+        assertFalse(SkyScrapers.isSolution(clues, 4, new int[][]{ board[0], board[1], board[2] }));
+        assertFalse(SkyScrapers.isSolution(clues, 4, null));
+    }
+}